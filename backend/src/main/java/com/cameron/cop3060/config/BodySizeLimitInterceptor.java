@@ -0,0 +1,113 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Fails RestTemplate responses whose body is larger than a fixed cap
+ * 
+ * Rejects up front when Content-Length is over the cap; otherwise counts
+ * bytes as the body streams through the message converter, so a chunked
+ * response is stopped at the cap instead of being read to the end.
+ * 
+ * @author Cameron Brown
+ */
+public class BodySizeLimitInterceptor implements ClientHttpRequestInterceptor {
+
+    private final long maxBytes;
+
+    public BodySizeLimitInterceptor(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ClientHttpResponse response = execution.execute(request, body);
+        long declared = response.getHeaders().getContentLength();
+        if (declared > maxBytes) {
+            response.close();
+            throw tooLarge(request);
+        }
+        return new LimitedResponse(response, request);
+    }
+
+    private IOException tooLarge(HttpRequest request) {
+        return new IOException("Response from " + request.getURI().getHost() + " exceeds " + maxBytes + " bytes");
+    }
+
+    private final class LimitedResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpRequest request;
+        private InputStream body;
+
+        LimitedResponse(ClientHttpResponse delegate, HttpRequest request) {
+            this.delegate = delegate;
+            this.request = request;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    private long read;
+
+                    @Override
+                    public int read() throws IOException {
+                        int b = super.read();
+                        if (b >= 0) {
+                            count(1);
+                        }
+                        return b;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int off, int len) throws IOException {
+                        int n = super.read(buffer, off, len);
+                        if (n > 0) {
+                            count(n);
+                        }
+                        return n;
+                    }
+
+                    private void count(int n) throws IOException {
+                        read += n;
+                        if (read > maxBytes) {
+                            throw tooLarge(request);
+                        }
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+}
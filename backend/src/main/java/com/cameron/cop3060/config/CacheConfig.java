@@ -1,31 +1,138 @@
 package com.cameron.cop3060.config;
 
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.dto.external.TMDBSearchResponseDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import java.util.concurrent.TimeUnit;
+import java.util.Collection;
 
 /**
  * Cache Configuration for storing API responses
  * Reduces redundant API calls
  * 
+ * Every cache named under app.cache.specs gets its own size/weight bound,
+ * expiry and optional refresh-after-write; any other cache name is created
+ * on demand with app.cache.defaults. Weight-bounded caches are weighed by
+ * an estimate of each entry's size in bytes, taken from its text lengths
+ * and result counts, so a few large TMDB entries cannot crowd out everything
+ * else without serializing anything on a put. All caches record stats
+ * (see CacheStatsController).
+ * 
  * @author Cameron Brown
  */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
 public class CacheConfig {
 
+    // Rough serialized sizes: numbers, dates, flags and field names of one movie, and one search result
+    private static final int MOVIE_BASE_WEIGHT = 512;
+    private static final int SEARCH_RESULT_WEIGHT = 768;
+    // Weight charged for values of any other type
+    private static final int FALLBACK_WEIGHT = 1024;
+
     @Bean
-    public CacheManager cacheManager() {
+    public CacheManager cacheManager(CacheSpecProperties properties, ApplicationContext context) {
+        CacheSpecProperties.Spec defaults = properties.getDefaults();
+        Weigher<Object, Object> weigher = (key, value) -> String.valueOf(key).length() + estimatedSize(value);
+
         CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(1, TimeUnit.HOURS)
-                .maximumSize(500)
-                .recordStats());
+        cacheManager.setCaffeine(builder(defaults, weigher));
+
+        properties.getSpecs().forEach((name, spec) -> {
+            CacheSpecProperties.Spec merged = merge(defaults, spec);
+            Caffeine<Object, Object> builder = builder(merged, weigher);
+            if (merged.getRefreshAfterWrite() == null) {
+                cacheManager.registerCustomCache(name, builder.build());
+                return;
+            }
+            String loaderName = name + "CacheLoader";
+            if (!context.containsBean(loaderName)) {
+                throw new IllegalStateException("Cache '" + name + "' sets refresh-after-write but no CacheLoader bean '"
+                        + loaderName + "' exists");
+            }
+            @SuppressWarnings("unchecked")
+            CacheLoader<Object, Object> loader = context.getBean(loaderName, CacheLoader.class);
+            builder.refreshAfterWrite(merged.getRefreshAfterWrite());
+            cacheManager.registerCustomCache(name, builder.build(loader));
+        });
         return cacheManager;
     }
+
+    private static Caffeine<Object, Object> builder(CacheSpecProperties.Spec spec, Weigher<Object, Object> weigher) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (spec.getMaximumWeight() != null) {
+            builder.maximumWeight(spec.getMaximumWeight().toBytes()).weigher(weigher);
+        } else if (spec.getMaximumSize() != null) {
+            builder.maximumSize(spec.getMaximumSize());
+        }
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+        return builder;
+    }
+
+    /**
+     * A cache's own settings over the defaults; its own size or weight bound replaces both default bounds
+     */
+    private static CacheSpecProperties.Spec merge(CacheSpecProperties.Spec defaults, CacheSpecProperties.Spec spec) {
+        CacheSpecProperties.Spec merged = new CacheSpecProperties.Spec();
+        boolean ownBound = spec.getMaximumSize() != null || spec.getMaximumWeight() != null;
+        merged.setMaximumSize(ownBound ? spec.getMaximumSize() : defaults.getMaximumSize());
+        merged.setMaximumWeight(ownBound ? spec.getMaximumWeight() : defaults.getMaximumWeight());
+        merged.setExpireAfterWrite(spec.getExpireAfterWrite() != null ? spec.getExpireAfterWrite() : defaults.getExpireAfterWrite());
+        merged.setExpireAfterAccess(spec.getExpireAfterAccess() != null ? spec.getExpireAfterAccess() : defaults.getExpireAfterAccess());
+        merged.setRefreshAfterWrite(spec.getRefreshAfterWrite());
+        return merged;
+    }
+
+    /**
+     * Approximate bytes of a cached value, from lengths it already knows
+     * Costs a few field reads per put, not a serialization
+     */
+    private static int estimatedSize(Object value) {
+        if (value == NullValue.INSTANCE) {
+            return 1;
+        }
+        if (value instanceof ExternalMovieCache row) {
+            return MOVIE_BASE_WEIGHT + length(row.getTitle()) + length(row.getOriginalTitle())
+                    + length(row.getOverview()) + length(row.getTagline()) + length(row.getDirector())
+                    + length(row.getPosterPath()) + length(row.getBackdropPath()) + length(row.getGenreIds());
+        }
+        if (value instanceof TMDBMovieDTO dto) {
+            return MOVIE_BASE_WEIGHT + length(dto.getTitle()) + length(dto.getOriginalTitle())
+                    + length(dto.getOverview()) + length(dto.getTagline());
+        }
+        if (value instanceof TMDBSearchResponseDTO search) {
+            return MOVIE_BASE_WEIGHT + (search.getResults() == null ? 0 : search.getResults().size() * SEARCH_RESULT_WEIGHT);
+        }
+        if (value instanceof CharSequence text) {
+            return text.length();
+        }
+        if (value instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (value instanceof Collection<?> items) {
+            return Math.max(items.size(), 1) * FALLBACK_WEIGHT;
+        }
+        return FALLBACK_WEIGHT;
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
 }
@@ -0,0 +1,62 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-cache Caffeine settings (prefix "app.cache")
+ * 
+ * Example:
+ *   app.cache.defaults.maximum-size=500
+ *   app.cache.defaults.expire-after-write=1h
+ *   app.cache.specs[tmdbMovies].maximum-weight=16MB
+ *   app.cache.specs[tmdbMovies].expire-after-write=6h
+ *   app.cache.specs[tmdbMovies].refresh-after-write=30m
+ * 
+ * maximum-weight bounds the cache by the estimated size of its entries and
+ * takes precedence over maximum-size. refresh-after-write needs a
+ * CacheLoader bean named "&lt;cacheName&gt;CacheLoader".
+ * 
+ * @author Cameron Brown
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheSpecProperties {
+
+    // Used for named caches without their own spec and for caches created on demand
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    public static class Spec {
+        private Long maximumSize;
+        private DataSize maximumWeight;
+        private Duration expireAfterWrite;
+        private Duration expireAfterAccess;
+        private Duration refreshAfterWrite;
+
+        public Long getMaximumSize() { return maximumSize; }
+        public void setMaximumSize(Long maximumSize) { this.maximumSize = maximumSize; }
+
+        public DataSize getMaximumWeight() { return maximumWeight; }
+        public void setMaximumWeight(DataSize maximumWeight) { this.maximumWeight = maximumWeight; }
+
+        public Duration getExpireAfterWrite() { return expireAfterWrite; }
+        public void setExpireAfterWrite(Duration expireAfterWrite) { this.expireAfterWrite = expireAfterWrite; }
+
+        public Duration getExpireAfterAccess() { return expireAfterAccess; }
+        public void setExpireAfterAccess(Duration expireAfterAccess) { this.expireAfterAccess = expireAfterAccess; }
+
+        public Duration getRefreshAfterWrite() { return refreshAfterWrite; }
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) { this.refreshAfterWrite = refreshAfterWrite; }
+    }
+
+    public Spec getDefaults() { return defaults; }
+    public void setDefaults(Spec defaults) { this.defaults = defaults; }
+
+    public Map<String, Spec> getSpecs() { return specs; }
+    public void setSpecs(Map<String, Spec> specs) { this.specs = specs; }
+}
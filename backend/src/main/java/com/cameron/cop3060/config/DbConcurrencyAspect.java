@@ -0,0 +1,34 @@
+package com.cameron.cop3060.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Puts UserService and MovieService calls behind the DbConcurrencyLimiter
+ *
+ * Ordered ahead of the transaction advice, so a caller waits for a permit
+ * before its transaction opens and takes a pooled connection.
+ *
+ * @author Cameron Brown
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class DbConcurrencyAspect {
+
+    private final DbConcurrencyLimiter limiter;
+
+    public DbConcurrencyAspect(DbConcurrencyLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Around("execution(public * com.cameron.cop3060.service.UserService.*(..))"
+            + " || execution(public * com.cameron.cop3060.service.MovieService.*(..))")
+    public Object limit(ProceedingJoinPoint call) throws Throwable {
+        return limiter.execute(call::proceed);
+    }
+}
@@ -0,0 +1,122 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fair cap on how many requests run database work at once
+ *
+ * With virtual threads every request gets its own thread, so thousands can
+ * reach the Hikari pool at the same moment. This semaphore admits at most
+ * {@code app.db.max-concurrency} callers (defaults to the pool size) in
+ * arrival order; the rest wait without holding a connection. A caller that
+ * waits longer than {@code app.db.acquire-timeout-ms} gets 503 instead of a
+ * pool timeout. Permits are reentrant per thread, so a service calling
+ * another limited service never waits on itself.
+ *
+ * @author Cameron Brown
+ */
+@Component
+public class DbConcurrencyLimiter {
+
+    /** Nesting depth of the permit the current thread holds (0 = none) */
+    private static final ThreadLocal<int[]> DEPTH = ThreadLocal.withInitial(() -> new int[1]);
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long acquireTimeoutNanos;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peakInFlight = new AtomicInteger();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    public DbConcurrencyLimiter(@Value("${app.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+                                @Value("${app.db.acquire-timeout-ms:5000}") long acquireTimeoutMillis) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("app.db.max-concurrency must be at least 1");
+        }
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+    }
+
+    /** Work that may throw anything (an advised method invocation) */
+    @FunctionalInterface
+    public interface Work<T> {
+        T run() throws Throwable;
+    }
+
+    /**
+     * Run work once a permit is free
+     *
+     * @throws ResponseStatusException 503 if no permit frees up in time
+     */
+    public <T> T execute(Work<T> work) throws Throwable {
+        int[] depth = DEPTH.get();
+        if (depth[0] > 0) {
+            depth[0]++;
+            try {
+                return work.run();
+            } finally {
+                depth[0]--;
+            }
+        }
+
+        acquire();
+        depth[0] = 1;
+        int running = inFlight.incrementAndGet();
+        peakInFlight.accumulateAndGet(running, Math::max);
+        try {
+            return work.run();
+        } finally {
+            inFlight.decrementAndGet();
+            DEPTH.remove();
+            permits.release();
+        }
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        boolean granted;
+        try {
+            granted = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted waiting for the database");
+        }
+        long waited = System.nanoTime() - start;
+        if (!granted) {
+            rejected.incrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, try again shortly");
+        }
+        acquired.incrementAndGet();
+        totalWaitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+    }
+
+    public Map<String, Object> stats() {
+        long granted = acquired.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("maxConcurrency", maxConcurrency);
+        stats.put("inFlight", inFlight.get());
+        stats.put("peakInFlight", peakInFlight.get());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("acquired", granted);
+        stats.put("rejected", rejected.get());
+        stats.put("averageWaitMillis", granted == 0 ? 0.0 : totalWaitNanos.get() / (double) granted / 1_000_000.0);
+        stats.put("maxWaitMillis", maxWaitNanos.get() / 1_000_000.0);
+        return stats;
+    }
+}
@@ -0,0 +1,137 @@
+package com.cameron.cop3060.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for replication between two local H2 databases
+ *
+ * H2 has no replication, so every {@code app.datasource.local-sync-interval-ms}
+ * this copies the primary into each replica: SCRIPT on the primary, then
+ * DROP ALL OBJECTS and the script on the replica. The heartbeat row travels
+ * with the copy, so the replica's lag grows between copies just like a real
+ * asynchronous replica's; set the interval above app.datasource.max-lag to
+ * watch reads fall back to the primary.
+ *
+ * Before rewriting a replica the sync takes it out of rotation and waits
+ * for every connection borrowed from its pool to come back, so no read is
+ * running when the tables are dropped. If that takes longer than
+ * {@code app.datasource.local-sync-drain-timeout-ms} the copy is skipped
+ * this round and the replica keeps serving (and falling behind).
+ *
+ * Only runs with the h2-replica profile (application-h2-replica.properties).
+ *
+ * @author Cameron Brown
+ */
+public class H2ReplicaSync {
+
+    private static final Logger log = LoggerFactory.getLogger(H2ReplicaSync.class);
+
+    private static final long DRAIN_POLL_MILLIS = 20;
+
+    private final DataSource primary;
+    private final ReadWriteRoutingDataSource routing;
+    private final long drainTimeoutMillis;
+
+    public H2ReplicaSync(DataSource primary, ReadWriteRoutingDataSource routing, long drainTimeoutMillis) {
+        this.primary = primary;
+        this.routing = routing;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.local-sync-interval-ms}")
+    public void sync() {
+        List<String> script;
+        try {
+            script = script();
+        } catch (SQLException e) {
+            log.warn("Could not script the primary database: {}", e.getMessage());
+            return;
+        }
+        for (ReadWriteRoutingDataSource.Replica replica : routing.getReplicas()) {
+            load(replica, script);
+        }
+    }
+
+    private List<String> script() throws SQLException {
+        List<String> statements = new ArrayList<>();
+        try (Connection con = primary.getConnection();
+             Statement statement = con.createStatement();
+             ResultSet rows = statement.executeQuery("SCRIPT NOPASSWORDS NOSETTINGS")) {
+            while (rows.next()) {
+                statements.add(rows.getString(1));
+            }
+        }
+        return statements;
+    }
+
+    private void load(ReadWriteRoutingDataSource.Replica replica, List<String> script) {
+        long start = System.nanoTime();
+        HikariDataSource pool = (HikariDataSource) replica.getDataSource();
+        routing.setPaused(replica, true);
+        try {
+            if (!drain(pool)) {
+                log.warn("Skipped copying primary to {}: reads still running after {} ms",
+                        replica.getName(), drainTimeoutMillis);
+                return;
+            }
+            copy(pool, script);
+            log.debug("Copied primary to {} ({} statements) in {} ms",
+                    replica.getName(), script.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (SQLException e) {
+            // Whatever is left of the replica is not fit to read until a copy succeeds
+            routing.markUnhealthy(replica, -1, "local copy failed: " + e.getMessage());
+            log.warn("Could not copy primary to {}: {}", replica.getName(), e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            routing.setPaused(replica, false);
+        }
+    }
+
+    /**
+     * Wait until no connection is borrowed from the (paused) replica pool
+     *
+     * @return false if reads were still running at the timeout
+     */
+    private boolean drain(HikariDataSource pool) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis);
+        // One poll first: a read routed just before the pause may not have borrowed yet
+        TimeUnit.MILLISECONDS.sleep(DRAIN_POLL_MILLIS);
+        while (true) {
+            HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+            // null = pool not started yet, so nothing can be borrowed
+            if (stats == null || (stats.getActiveConnections() == 0 && stats.getThreadsAwaitingConnection() == 0)) {
+                return true;
+            }
+            if (System.nanoTime() >= deadline) {
+                return false;
+            }
+            TimeUnit.MILLISECONDS.sleep(DRAIN_POLL_MILLIS);
+        }
+    }
+
+    private static void copy(HikariDataSource pool, List<String> script) throws SQLException {
+        // The replica pool is read-only, so the copy goes over its own connection
+        try (Connection con = DriverManager.getConnection(pool.getJdbcUrl(), pool.getUsername(), pool.getPassword());
+             Statement statement = con.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : script) {
+                statement.execute(sql);
+            }
+        }
+    }
+}
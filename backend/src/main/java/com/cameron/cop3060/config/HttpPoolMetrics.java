@@ -0,0 +1,91 @@
+package com.cameron.cop3060.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Acquire latency and saturation for the outbound HTTP connection pools
+ * 
+ * Acquire time runs from asking the pool for a connection until one is
+ * ready to send on: near zero for a reused keep-alive connection, the TCP
+ * (and TLS) handshake for a new one, plus any queueing when the pool is
+ * full. Latencies go into power-of-two buckets, so p99 is an upper bound
+ * within 2x. Occupancy (leased / idle / pending) is read live from the
+ * pool itself when stats are requested.
+ * 
+ * @author Cameron Brown
+ */
+public class HttpPoolMetrics {
+
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public Pool pool(String name) {
+        return pools.computeIfAbsent(name, k -> new Pool());
+    }
+
+    public static final class Pool {
+        private final AtomicLongArray buckets = new AtomicLongArray(64);
+        private final LongAdder acquired = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private volatile Supplier<Map<String, Object>> occupancy = Map::of;
+
+        public void recordAcquire(long nanos) {
+            buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(Math.max(nanos, 1)) - 1);
+            acquired.increment();
+            totalNanos.addAndGet(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        /** No connection within the acquire timeout, or the connect itself failed */
+        public void recordFailure() {
+            failed.increment();
+        }
+
+        public void occupancy(Supplier<Map<String, Object>> occupancy) {
+            this.occupancy = occupancy;
+        }
+
+        /** Upper bound of the bucket holding the p-th percentile */
+        double percentileMillis(double p) {
+            long total = acquired.sum();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < 64; i++) {
+                seen += buckets.get(i);
+                if (seen >= rank) {
+                    return Math.pow(2, i + 1) / 1_000_000.0;
+                }
+            }
+            return maxNanos.get() / 1_000_000.0;
+        }
+
+        Map<String, Object> stats() {
+            long count = acquired.sum();
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("acquired", count);
+            stats.put("acquireFailures", failed.sum());
+            stats.put("averageAcquireMillis", count == 0 ? 0.0 : totalNanos.get() / (double) count / 1_000_000.0);
+            stats.put("p99AcquireMillis", percentileMillis(0.99));
+            stats.put("maxAcquireMillis", maxNanos.get() / 1_000_000.0);
+            stats.putAll(occupancy.get());
+            return stats;
+        }
+    }
+
+    public Map<String, Map<String, Object>> stats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        new TreeMap<>(pools).forEach((name, pool) -> stats.put(name, pool.stats()));
+        return stats;
+    }
+}
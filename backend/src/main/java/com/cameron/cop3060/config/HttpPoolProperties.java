@@ -0,0 +1,83 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Connection pool settings shared by RestTemplate and both WebClients (prefix "app.http")
+ * 
+ * Example:
+ *   app.http.max-connections-per-host=50
+ *   app.http.per-host[api.themoviedb.org]=20
+ *   app.http.max-idle-time=30s
+ *   app.http.max-response-size=2MB
+ * 
+ * Limits apply per remote host. max-connections caps the RestTemplate pool
+ * across all hosts; Reactor Netty keeps one pool per host, so there the
+ * per-host limit is the only cap.
+ * 
+ * @author Cameron Brown
+ */
+@ConfigurationProperties(prefix = "app.http")
+public class HttpPoolProperties {
+
+    private int maxConnections = 200;
+    private int maxConnectionsPerHost = 50;
+    // Overrides of maxConnectionsPerHost, keyed by host name
+    private Map<String, Integer> perHost = new LinkedHashMap<>();
+    // Longest a request waits for a pooled connection before failing
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+    // Requests allowed to queue for a connection per host (Reactor Netty)
+    private int maxPendingAcquires = 1000;
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    private Duration responseTimeout = Duration.ofSeconds(5);
+    // Idle connections older than this are closed by the background evictor
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+    // Connections are retired after this long even if busy, so DNS changes are picked up
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+    private Duration evictionInterval = Duration.ofSeconds(30);
+    // Offer HTTP/2 over TLS (ALPN) to WebClient hosts; HTTP/1.1 is kept as the fallback
+    private boolean http2 = true;
+    // Responses larger than this fail instead of being buffered
+    private DataSize maxResponseSize = DataSize.ofMegabytes(2);
+
+    public int getMaxConnections() { return maxConnections; }
+    public void setMaxConnections(int maxConnections) { this.maxConnections = maxConnections; }
+
+    public int getMaxConnectionsPerHost() { return maxConnectionsPerHost; }
+    public void setMaxConnectionsPerHost(int maxConnectionsPerHost) { this.maxConnectionsPerHost = maxConnectionsPerHost; }
+
+    public Map<String, Integer> getPerHost() { return perHost; }
+    public void setPerHost(Map<String, Integer> perHost) { this.perHost = perHost; }
+
+    public Duration getAcquireTimeout() { return acquireTimeout; }
+    public void setAcquireTimeout(Duration acquireTimeout) { this.acquireTimeout = acquireTimeout; }
+
+    public int getMaxPendingAcquires() { return maxPendingAcquires; }
+    public void setMaxPendingAcquires(int maxPendingAcquires) { this.maxPendingAcquires = maxPendingAcquires; }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+    public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+    public Duration getResponseTimeout() { return responseTimeout; }
+    public void setResponseTimeout(Duration responseTimeout) { this.responseTimeout = responseTimeout; }
+
+    public Duration getMaxIdleTime() { return maxIdleTime; }
+    public void setMaxIdleTime(Duration maxIdleTime) { this.maxIdleTime = maxIdleTime; }
+
+    public Duration getMaxLifeTime() { return maxLifeTime; }
+    public void setMaxLifeTime(Duration maxLifeTime) { this.maxLifeTime = maxLifeTime; }
+
+    public Duration getEvictionInterval() { return evictionInterval; }
+    public void setEvictionInterval(Duration evictionInterval) { this.evictionInterval = evictionInterval; }
+
+    public boolean isHttp2() { return http2; }
+    public void setHttp2(boolean http2) { this.http2 = http2; }
+
+    public DataSize getMaxResponseSize() { return maxResponseSize; }
+    public void setMaxResponseSize(DataSize maxResponseSize) { this.maxResponseSize = maxResponseSize; }
+}
@@ -0,0 +1,129 @@
+package com.cameron.cop3060.config;
+
+import io.netty.resolver.AddressResolverGroup;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.netty.ConnectionObserver;
+import reactor.netty.resources.ConnectionPoolMetrics;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.transport.TransportConfig;
+
+import java.net.SocketAddress;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Pooled Reactor Netty ConnectionProvider that reports to HttpPoolMetrics
+ * 
+ * Wraps the pool so every acquire is timed, and registers a MeterRegistrar
+ * so each per-host pool's leased / idle / pending counts can be read live.
+ * HTTP/2 connections are multiplexed and handed out by Reactor Netty's own
+ * HTTP/2 pool, so only HTTP/1.1 acquires are timed.
+ * 
+ * @author Cameron Brown
+ */
+public class MeteredConnectionProvider implements ConnectionProvider {
+
+    private final ConnectionProvider delegate;
+    private final HttpPoolMetrics.Pool metrics;
+    private final Map<String, ConnectionPoolMetrics> hostPools = new ConcurrentHashMap<>();
+
+    /**
+     * @param builder pool settings; metrics registration is added here
+     */
+    public MeteredConnectionProvider(ConnectionProvider.Builder builder, HttpPoolMetrics.Pool metrics) {
+        this.metrics = metrics;
+        this.delegate = builder.metrics(true, () -> new MeterRegistrar() {
+            @Override
+            public void registerMetrics(String poolName, String id, SocketAddress remoteAddress, ConnectionPoolMetrics pool) {
+                hostPools.put(remoteAddress + "#" + id, pool);
+            }
+
+            @Override
+            public void deRegisterMetrics(String poolName, String id, SocketAddress remoteAddress) {
+                hostPools.remove(remoteAddress + "#" + id);
+            }
+        }).build();
+        metrics.occupancy(this::occupancy);
+    }
+
+    @Override
+    public Mono<? extends Connection> acquire(TransportConfig config, ConnectionObserver connectionObserver,
+                                              Supplier<? extends SocketAddress> remoteAddress,
+                                              AddressResolverGroup<?> resolverGroup) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return delegate.acquire(config, connectionObserver, remoteAddress, resolverGroup)
+                    .doOnNext(connection -> metrics.recordAcquire(System.nanoTime() - start))
+                    .doOnError(e -> metrics.recordFailure());
+        });
+    }
+
+    private Map<String, Object> occupancy() {
+        int leased = 0, idle = 0, pending = 0, allocated = 0;
+        Map<String, Map<String, Integer>> hosts = new TreeMap<>();
+        for (Map.Entry<String, ConnectionPoolMetrics> entry : hostPools.entrySet()) {
+            ConnectionPoolMetrics pool = entry.getValue();
+            leased += pool.acquiredSize();
+            idle += pool.idleSize();
+            pending += pool.pendingAcquireSize();
+            allocated += pool.allocatedSize();
+            Map<String, Integer> host = new LinkedHashMap<>();
+            host.put("leased", pool.acquiredSize());
+            host.put("idle", pool.idleSize());
+            host.put("pending", pool.pendingAcquireSize());
+            host.put("max", pool.maxAllocatedSize());
+            hosts.put(entry.getKey(), host);
+        }
+        Map<String, Object> occupancy = new LinkedHashMap<>();
+        occupancy.put("leased", leased);
+        occupancy.put("idle", idle);
+        occupancy.put("pending", pending);
+        occupancy.put("open", allocated);
+        occupancy.put("hosts", hosts);
+        return occupancy;
+    }
+
+    @Override
+    public Mono<Void> disposeLater() {
+        return delegate.disposeLater();
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+
+    @Override
+    public void disposeWhen(SocketAddress address) {
+        delegate.disposeWhen(address);
+    }
+
+    @Override
+    public boolean isDisposed() {
+        return delegate.isDisposed();
+    }
+
+    @Override
+    public int maxConnections() {
+        return delegate.maxConnections();
+    }
+
+    @Override
+    public Map<SocketAddress, Integer> maxConnectionsPerHost() {
+        return delegate.maxConnectionsPerHost();
+    }
+
+    @Override
+    public Builder mutate() {
+        return delegate.mutate();
+    }
+
+    @Override
+    public String name() {
+        return delegate.name();
+    }
+}
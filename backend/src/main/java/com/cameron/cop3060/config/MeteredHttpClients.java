@@ -0,0 +1,89 @@
+package com.cameron.cop3060.config;
+
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.routing.HttpRoute;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Apache HttpClient 5 (classic) clients that report to HttpPoolMetrics
+ * 
+ * The connect step of the exec chain leases a connection from the pool and
+ * opens it if needed; a handler on each side of that step times it. Idle
+ * and expired connections are closed by the client's background evictor.
+ * 
+ * @author Cameron Brown
+ */
+public final class MeteredHttpClients {
+
+    private static final String ACQUIRE_START = MeteredHttpClients.class.getName() + ".acquireStart";
+
+    private MeteredHttpClients() {
+    }
+
+    public static CloseableHttpClient create(PoolingHttpClientConnectionManager connectionManager,
+                                             RequestConfig requestConfig,
+                                             TimeValue maxIdleTime,
+                                             HttpPoolMetrics.Pool metrics) {
+        ExecChainHandler before = (request, scope, chain) -> {
+            scope.clientContext.setAttribute(ACQUIRE_START, System.nanoTime());
+            try {
+                return chain.proceed(request, scope);
+            } catch (IOException e) {
+                // Still set: the lease or connect failed before the second handler ran
+                if (scope.clientContext.getAttribute(ACQUIRE_START) != null) {
+                    metrics.recordFailure();
+                }
+                throw e;
+            }
+        };
+        ExecChainHandler after = (request, scope, chain) -> {
+            Object start = scope.clientContext.removeAttribute(ACQUIRE_START);
+            if (start != null) {
+                metrics.recordAcquire(System.nanoTime() - (Long) start);
+            }
+            return chain.proceed(request, scope);
+        };
+        metrics.occupancy(() -> occupancy(connectionManager));
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "acquire-start", before)
+                .addExecInterceptorAfter(ChainElement.CONNECT.name(), "acquire-end", after)
+                .evictExpiredConnections()
+                .evictIdleConnections(maxIdleTime)
+                .build();
+    }
+
+    private static Map<String, Object> occupancy(PoolingHttpClientConnectionManager connectionManager) {
+        PoolStats total = connectionManager.getTotalStats();
+        Map<String, Map<String, Integer>> hosts = new TreeMap<>();
+        for (HttpRoute route : connectionManager.getRoutes()) {
+            PoolStats stats = connectionManager.getStats(route);
+            Map<String, Integer> host = new LinkedHashMap<>();
+            host.put("leased", stats.getLeased());
+            host.put("idle", stats.getAvailable());
+            host.put("pending", stats.getPending());
+            host.put("max", stats.getMax());
+            hosts.put(route.getTargetHost().toURI(), host);
+        }
+        Map<String, Object> occupancy = new LinkedHashMap<>();
+        occupancy.put("leased", total.getLeased());
+        occupancy.put("idle", total.getAvailable());
+        occupancy.put("pending", total.getPending());
+        occupancy.put("max", total.getMax());
+        occupancy.put("hosts", hosts);
+        return occupancy;
+    }
+}
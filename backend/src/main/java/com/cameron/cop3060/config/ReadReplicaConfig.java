@@ -0,0 +1,102 @@
+package com.cameron.cop3060.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read/write split between the primary database and read replicas
+ *
+ * Active once app.datasource.replicas[0].url is set (ReplicaProperties).
+ * Replaces Boot's single DataSource with:
+ *  - the primary Hikari pool, built from spring.datasource.* as before
+ *  - one read-only Hikari pool per replica, with the primary's settings
+ *    unless the replica overrides them
+ *  - ReadWriteRoutingDataSource choosing between them per transaction,
+ *    behind a LazyConnectionDataSourceProxy so the choice is made once the
+ *    transaction's read-only flag is known
+ * JPA, Spring's transaction manager and data.sql all use the proxy, so
+ * schema updates and writes stay on the primary. Routing and replica lag
+ * are served by /api/runtime/datasources.
+ *
+ * @author Cameron Brown
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.replicas[0]", name = "url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(HikariDataSource primaryDataSource, ReplicaProperties props) {
+        List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (int i = 0; i < props.getReplicas().size(); i++) {
+            ReplicaProperties.Replica replica = props.getReplicas().get(i);
+            String name = StringUtils.hasText(replica.getName()) ? replica.getName() : "replica-" + (i + 1);
+            replicas.add(new ReadWriteRoutingDataSource.Replica(name, replicaPool(primaryDataSource, replica, name)));
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+                                               ReadWriteRoutingDataSource routingDataSource,
+                                               ReplicaProperties props) {
+        return new ReplicaLagMonitor(primaryDataSource, routingDataSource, props.getMaxLag());
+    }
+
+    @Bean
+    @ConditionalOnProperty("app.datasource.local-sync-interval-ms")
+    public H2ReplicaSync h2ReplicaSync(HikariDataSource primaryDataSource,
+                                       ReadWriteRoutingDataSource routingDataSource,
+                                       @Value("${app.datasource.local-sync-drain-timeout-ms:5000}") long drainTimeoutMillis) {
+        return new H2ReplicaSync(primaryDataSource, routingDataSource, drainTimeoutMillis);
+    }
+
+    private static HikariDataSource replicaPool(HikariDataSource primary, ReplicaProperties.Replica replica, String name) {
+        // Configured but not started: the pool opens on first use, so a replica
+        // that is down at startup only keeps reads on the primary
+        HikariDataSource pool = new HikariDataSource();
+        primary.copyStateTo(pool);
+        pool.setPoolName(name);
+        pool.setJdbcUrl(replica.getUrl());
+        if (replica.getUsername() != null) {
+            pool.setUsername(replica.getUsername());
+        }
+        if (replica.getPassword() != null) {
+            pool.setPassword(replica.getPassword());
+        }
+        if (replica.getMaximumPoolSize() > 0) {
+            pool.setMaximumPoolSize(replica.getMaximumPoolSize());
+        }
+        pool.setReadOnly(true);
+        return pool;
+    }
+}
@@ -0,0 +1,162 @@
+package com.cameron.cop3060.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sends read-only transactions to a replica and everything else to the primary
+ *
+ * Replicas are used round-robin, skipping any that ReplicaLagMonitor has
+ * marked unhealthy (too far behind, or not answering) and any paused for a
+ * local re-sync. When none is available the read goes to the primary. A
+ * replica starts out unhealthy, so nothing is read from it before its first
+ * lag check. Work outside a transaction, and read-only calls joining a
+ * read-write transaction, stay on the primary, so a request always sees its
+ * own writes.
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the transaction manager
+ * asks for a connection before the read-only flag is bound to the thread,
+ * and the proxy defers the real lookup until the first statement.
+ *
+ * @author Cameron Brown
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas;
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final LongAdder primaryConnections = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    /** A replica pool and what the lag monitor last saw of it */
+    public static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final LongAdder connections = new LongAdder();
+        private volatile boolean healthy;
+        private volatile boolean paused;
+        private volatile long lagMillis = -1;
+        private volatile String lastError;
+
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        public String getName() { return name; }
+        public DataSource getDataSource() { return dataSource; }
+        public boolean isHealthy() { return healthy; }
+
+        boolean available() {
+            return healthy && !paused;
+        }
+    }
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas) {
+        this.replicas = List.copyOf(replicas);
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : this.replicas) {
+            targets.put(replica.name, replica.dataSource);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        // An unknown key is a bug here, not a reason to quietly use the primary
+        setLenientFallback(false);
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        Replica replica = nextAvailable();
+        if (replica == null) {
+            fallbacks.increment();
+            primaryConnections.increment();
+            return PRIMARY;
+        }
+        replica.connections.increment();
+        return replica.name;
+    }
+
+    private Replica nextAvailable() {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+        for (int i = 0; i < count; i++) {
+            Replica replica = replicas.get((start + i) % count);
+            if (replica.available()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    // ==================== Replica state (ReplicaLagMonitor / H2ReplicaSync) ====================
+
+    void markHealthy(Replica replica, long lagMillis) {
+        replica.lagMillis = lagMillis;
+        replica.lastError = null;
+        replica.healthy = true;
+    }
+
+    void markUnhealthy(Replica replica, long lagMillis, String reason) {
+        replica.healthy = false;
+        replica.lagMillis = lagMillis;
+        replica.lastError = reason;
+    }
+
+    /** Take a replica out of rotation (while it is being rewritten) or put it back */
+    void setPaused(Replica replica, boolean paused) {
+        replica.paused = paused;
+    }
+
+    /**
+     * Connections handed out per target, replica health and lag
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("primaryConnections", primaryConnections.sum());
+        result.put("readOnlyFallbacksToPrimary", fallbacks.sum());
+        Map<String, Object> replicaStats = new LinkedHashMap<>();
+        for (Replica replica : replicas) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("healthy", replica.healthy);
+            stats.put("paused", replica.paused);
+            stats.put("lagMs", replica.lagMillis);
+            stats.put("connections", replica.connections.sum());
+            if (replica.lastError != null) {
+                stats.put("lastError", replica.lastError);
+            }
+            replicaStats.put(replica.name, stats);
+        }
+        result.put("replicas", replicaStats);
+        return result;
+    }
+
+    /** The replica pools are created here, so they are closed here (the primary is its own bean) */
+    @Override
+    public void destroy() {
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof HikariDataSource pool) {
+                pool.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.cameron.cop3060.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Measures how far each replica is behind the primary
+ *
+ * Every check writes the current time into a one-row heartbeat table on the
+ * primary, then reads that row back from each replica; the replica's lag is
+ * now minus the time it has. Replication carries the row like any other, so
+ * this works the same on H2, MySQL and PostgreSQL. A replica more than
+ * {@code app.datasource.max-lag} behind, or one that fails the query, stops
+ * receiving reads until a later check finds it caught up.
+ *
+ * @author Cameron Brown
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    static final String HEARTBEAT_TABLE = "replication_heartbeat";
+
+    private final DataSource primary;
+    private final ReadWriteRoutingDataSource routing;
+    private final long maxLagMillis;
+    private volatile boolean tableReady;
+
+    public ReplicaLagMonitor(DataSource primary, ReadWriteRoutingDataSource routing, Duration maxLag) {
+        this.primary = primary;
+        this.routing = routing;
+        this.maxLagMillis = maxLag.toMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval-ms:2000}")
+    public void check() {
+        long now;
+        try {
+            now = beat();
+        } catch (SQLException e) {
+            // Without a fresh heartbeat every replica would look further behind each round
+            log.warn("Could not write replication heartbeat: {}", e.getMessage());
+            return;
+        }
+        for (ReadWriteRoutingDataSource.Replica replica : routing.getReplicas()) {
+            check(replica, now);
+        }
+    }
+
+    private void check(ReadWriteRoutingDataSource.Replica replica, long now) {
+        try (Connection con = replica.getDataSource().getConnection();
+             Statement statement = con.createStatement();
+             ResultSet row = statement.executeQuery("SELECT beat_at FROM " + HEARTBEAT_TABLE + " WHERE id = 1")) {
+            if (!row.next()) {
+                update(replica, false, -1, "no heartbeat replicated yet");
+                return;
+            }
+            long lag = Math.max(0, now - row.getLong(1));
+            if (lag > maxLagMillis) {
+                update(replica, false, lag, "lag " + lag + " ms exceeds " + maxLagMillis + " ms");
+            } else {
+                update(replica, true, lag, null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            // Hikari reports a pool that cannot start with a RuntimeException
+            update(replica, false, -1, e.getMessage());
+        }
+    }
+
+    private void update(ReadWriteRoutingDataSource.Replica replica, boolean healthy, long lag, String reason) {
+        boolean wasHealthy = replica.isHealthy();
+        if (healthy) {
+            routing.markHealthy(replica, lag);
+            if (!wasHealthy) {
+                log.info("Replica {} is serving reads (lag {} ms)", replica.getName(), lag);
+            }
+        } else {
+            routing.markUnhealthy(replica, lag, reason);
+            if (wasHealthy) {
+                log.warn("Replica {} taken out of rotation: {}", replica.getName(), reason);
+            }
+        }
+    }
+
+    /** @return the time written */
+    private long beat() throws SQLException {
+        long now = System.currentTimeMillis();
+        try (Connection con = primary.getConnection()) {
+            con.setAutoCommit(true);
+            if (!tableReady) {
+                try (Statement statement = con.createStatement()) {
+                    statement.execute("CREATE TABLE IF NOT EXISTS " + HEARTBEAT_TABLE
+                            + " (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+                }
+                tableReady = true;
+            }
+            try (PreparedStatement update = con.prepareStatement(
+                    "UPDATE " + HEARTBEAT_TABLE + " SET beat_at = ? WHERE id = 1")) {
+                update.setLong(1, now);
+                if (update.executeUpdate() == 0) {
+                    try (PreparedStatement insert = con.prepareStatement(
+                            "INSERT INTO " + HEARTBEAT_TABLE + " (id, beat_at) VALUES (1, ?)")) {
+                        insert.setLong(1, now);
+                        insert.executeUpdate();
+                    }
+                }
+            }
+        }
+        return now;
+    }
+}
@@ -0,0 +1,60 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Read replica pools for read-only transactions (prefix "app.datasource")
+ *
+ * Example:
+ *   app.datasource.replicas[0].url=jdbc:postgresql://replica-1:5432/cop3060
+ *   app.datasource.replicas[0].username=reader
+ *   app.datasource.replicas[0].password=secret
+ *   app.datasource.max-lag=5s
+ *
+ * Anything not set on a replica (credentials, pool size, timeouts) is taken
+ * from the primary pool (spring.datasource.*). With no replicas configured
+ * the application runs on the primary DataSource alone.
+ *
+ * @author Cameron Brown
+ */
+@ConfigurationProperties(prefix = "app.datasource")
+public class ReplicaProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+    // A replica further behind the primary than this stops receiving reads until it catches up
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    public static class Replica {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        // 0 = same as the primary pool
+        private int maximumPoolSize;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getUrl() { return url; }
+        public void setUrl(String url) { this.url = url; }
+
+        public String getUsername() { return username; }
+        public void setUsername(String username) { this.username = username; }
+
+        public String getPassword() { return password; }
+        public void setPassword(String password) { this.password = password; }
+
+        public int getMaximumPoolSize() { return maximumPoolSize; }
+        public void setMaximumPoolSize(int maximumPoolSize) { this.maximumPoolSize = maximumPoolSize; }
+    }
+
+    public List<Replica> getReplicas() { return replicas; }
+    public void setReplicas(List<Replica> replicas) { this.replicas = replicas; }
+
+    public Duration getMaxLag() { return maxLag; }
+    public void setMaxLag(Duration maxLag) { this.maxLag = maxLag; }
+}
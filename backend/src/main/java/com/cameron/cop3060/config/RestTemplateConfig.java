@@ -1,47 +1,155 @@
 package com.cameron.cop3060.config;
 
+import io.netty.channel.ChannelOption;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.routing.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.InetSocketAddress;
+import java.util.List;
 
 /**
  * Configuration for REST clients used for external API calls
- * 
+ *
+ * Both stacks keep pooled keep-alive connections, so repeat calls to TMDB or
+ * RandomUser skip the TCP + TLS handshake:
+ *  - RestTemplate runs on Apache HttpClient 5 (HTTP/1.1)
+ *  - the WebClients share one Reactor Netty ConnectionProvider and offer
+ *    HTTP/2 via ALPN when app.http.http2=true
+ * Pool sizes, timeouts, idle eviction and the response size cap come from
+ * app.http (HttpPoolProperties). Acquire latency and pool occupancy are
+ * served by /api/runtime/http-pools.
+ *
  * @author Cameron Brown
  */
 @Configuration
+@EnableConfigurationProperties(HttpPoolProperties.class)
 public class RestTemplateConfig {
 
-    @Value("${tmdb.api.timeout:5000}")
-    private int timeout;
+    private static final int[] PORTS = {443, 80};
 
     @Bean
-    public RestTemplate restTemplate() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(timeout);
-        factory.setReadTimeout(timeout);
-        return new RestTemplate(factory);
+    public HttpPoolMetrics httpPoolMetrics() {
+        return new HttpPoolMetrics();
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager restTemplateConnectionManager(HttpPoolProperties props) {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(props.getMaxConnections())
+                .setMaxConnPerRoute(props.getMaxConnectionsPerHost())
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                // Reuse the most recent connection so surplus ones go idle and get evicted
+                .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(timeout(props.getConnectTimeout().toMillis()))
+                        .setSocketTimeout(timeout(props.getResponseTimeout().toMillis()))
+                        .setTimeToLive(TimeValue.ofMilliseconds(props.getMaxLifeTime().toMillis()))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        props.getPerHost().forEach((host, max) -> {
+            for (int port : PORTS) {
+                HttpHost target = new HttpHost(port == 443 ? "https" : "http", host, port);
+                connectionManager.setMaxPerRoute(new HttpRoute(target, null, port == 443), max);
+            }
+        });
+        return connectionManager;
     }
 
     @Bean
-    public WebClient.Builder webClientBuilder() {
-        return WebClient.builder();
+    public RestTemplate restTemplate(PoolingHttpClientConnectionManager restTemplateConnectionManager,
+                                     HttpPoolProperties props,
+                                     HttpPoolMetrics httpPoolMetrics) {
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(timeout(props.getAcquireTimeout().toMillis()))
+                .setResponseTimeout(timeout(props.getResponseTimeout().toMillis()))
+                .build();
+        CloseableHttpClient httpClient = MeteredHttpClients.create(restTemplateConnectionManager, requestConfig,
+                TimeValue.ofMilliseconds(props.getMaxIdleTime().toMillis()), httpPoolMetrics.pool("restTemplate"));
+
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        restTemplate.setInterceptors(List.of(new BodySizeLimitInterceptor(props.getMaxResponseSize().toBytes())));
+        return restTemplate;
+    }
+
+    /**
+     * One pool per remote host, shared by every WebClient built here
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider externalApiConnectionProvider(HttpPoolProperties props, HttpPoolMetrics httpPoolMetrics) {
+        ConnectionProvider.Builder builder = ConnectionProvider.builder("external-apis")
+                .maxConnections(props.getMaxConnectionsPerHost())
+                .pendingAcquireMaxCount(props.getMaxPendingAcquires())
+                .pendingAcquireTimeout(props.getAcquireTimeout())
+                .maxIdleTime(props.getMaxIdleTime())
+                .maxLifeTime(props.getMaxLifeTime())
+                .evictInBackground(props.getEvictionInterval())
+                .lifo();
+        props.getPerHost().forEach((host, max) -> {
+            for (int port : PORTS) {
+                builder.forRemoteHost(InetSocketAddress.createUnresolved(host, port), spec -> spec.maxConnections(max));
+            }
+        });
+        return new MeteredConnectionProvider(builder, httpPoolMetrics.pool("webClient"));
     }
 
     @Bean
-    public WebClient tmdbWebClient(@Value("${tmdb.api.base-url}") String baseUrl) {
+    public HttpClient externalApiHttpClient(@Qualifier("externalApiConnectionProvider") ConnectionProvider provider,
+                                            HttpPoolProperties props) {
+        HttpClient client = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, Math.toIntExact(props.getConnectTimeout().toMillis()))
+                .responseTimeout(props.getResponseTimeout())
+                .compress(true);
+        return props.isHttp2() ? client.protocol(HttpProtocol.H2, HttpProtocol.HTTP11) : client;
+    }
+
+    @Bean
+    public WebClient.Builder webClientBuilder(HttpClient externalApiHttpClient, HttpPoolProperties props) {
+        int maxInMemory = Math.toIntExact(props.getMaxResponseSize().toBytes());
         return WebClient.builder()
+                .clientConnector(new ReactorClientHttpConnector(externalApiHttpClient))
+                // Bodies are decoded as they stream in; anything past the cap fails with DataBufferLimitException
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxInMemory));
+    }
+
+    @Bean
+    public WebClient tmdbWebClient(WebClient.Builder webClientBuilder,
+                                   @Value("${tmdb.api.base-url}") String baseUrl) {
+        return webClientBuilder.clone()
                 .baseUrl(baseUrl)
                 .build();
     }
 
     @Bean
-    public WebClient randomUserWebClient(@Value("${randomuser.api.base-url}") String baseUrl) {
-        return WebClient.builder()
+    public WebClient randomUserWebClient(WebClient.Builder webClientBuilder,
+                                         @Value("${randomuser.api.base-url}") String baseUrl) {
+        return webClientBuilder.clone()
                 .baseUrl(baseUrl)
                 .build();
     }
+
+    private static Timeout timeout(long millis) {
+        return Timeout.ofMilliseconds(millis);
+    }
 }
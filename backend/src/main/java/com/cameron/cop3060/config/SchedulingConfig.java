@@ -0,0 +1,15 @@
+package com.cameron.cop3060.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled jobs (periodic external API sync)
+ * Pool size comes from spring.task.scheduling.pool.size
+ * 
+ * @author Cameron Brown
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
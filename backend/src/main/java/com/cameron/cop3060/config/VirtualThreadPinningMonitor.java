@@ -0,0 +1,153 @@
+package com.cameron.cop3060.config;
+
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reports virtual threads pinned to their carrier thread
+ *
+ * A virtual thread that blocks inside a synchronized block (or native
+ * frame) keeps its carrier busy, and enough of them starve the whole
+ * scheduler. When virtual threads are enabled this listens to the JFR
+ * {@code jdk.VirtualThreadPinned} event in-process, counts pinnings longer
+ * than {@code app.virtual-threads.pinned-threshold-ms} by the blocking
+ * frame, and logs the full stack the first time each frame shows up.
+ * Counts are served by /api/runtime/concurrency.
+ *
+ * Needs JDK 21+; on older runtimes it logs that and stays off.
+ *
+ * @author Cameron Brown
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 64;
+    private static final int MAX_SITES = 200;
+
+    private final Duration threshold;
+    private final Map<String, Site> sites = new ConcurrentHashMap<>();
+    private final LongAdder events = new LongAdder();
+    private volatile RecordingStream stream;
+
+    /** Pinnings seen at one blocking frame */
+    private static final class Site {
+        final LongAdder count = new LongAdder();
+        final AtomicLong totalNanos = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    public VirtualThreadPinningMonitor(@Value("${app.virtual-threads.pinned-threshold-ms:20}") long thresholdMillis) {
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (Runtime.version().feature() < 21) {
+            log.warn("spring.threads.virtual.enabled=true needs JDK 21+; running on {}, pinning monitor is off",
+                    Runtime.version());
+            return;
+        }
+        RecordingStream recording = new RecordingStream();
+        recording.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recording.onEvent(PINNED_EVENT, this::record);
+        recording.startAsync();
+        stream = recording;
+        log.info("Reporting virtual thread pinning longer than {} ms", threshold.toMillis());
+    }
+
+    private void record(RecordedEvent event) {
+        events.increment();
+        RecordedStackTrace trace = event.getStackTrace();
+        List<RecordedFrame> frames = trace == null ? List.of() : trace.getFrames();
+        String where = blockingFrame(frames);
+        long nanos = event.getDuration().toNanos();
+
+        // JFR delivers events on one thread, so check-then-insert is safe here
+        String key = sites.containsKey(where) || sites.size() < MAX_SITES ? where : "(other)";
+        Site site = sites.get(key);
+        if (site == null) {
+            site = new Site();
+            sites.put(key, site);
+            log.warn("Virtual thread pinned for {} ms at {}\n{}", nanos / 1_000_000, where, describe(frames));
+        }
+        site.count.increment();
+        site.totalNanos.addAndGet(nanos);
+        site.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /** First application (non-JDK) frame, which is usually the synchronized caller */
+    private static String blockingFrame(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+            }
+        }
+        return frames.isEmpty() ? "(no stack)" : "(JDK only)";
+    }
+
+    private static String describe(List<RecordedFrame> frames) {
+        StringBuilder stack = new StringBuilder();
+        for (RecordedFrame frame : frames.subList(0, Math.min(frames.size(), STACK_DEPTH))) {
+            stack.append("\tat ").append(frame.getMethod().getType().getName())
+                    .append('.').append(frame.getMethod().getName())
+                    .append(':').append(frame.getLineNumber()).append('\n');
+        }
+        return stack.toString();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", stream != null);
+        stats.put("thresholdMillis", threshold.toMillis());
+        stats.put("pinnedEvents", events.sum());
+        Map<String, Map<String, Object>> bySite = new LinkedHashMap<>();
+        sites.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, Site> e) -> e.getValue().count.sum()).reversed())
+                .forEach(e -> {
+                    Site site = e.getValue();
+                    long count = site.count.sum();
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("count", count);
+                    body.put("averageMillis", count == 0 ? 0.0 : site.totalNanos.get() / (double) count / 1_000_000.0);
+                    body.put("maxMillis", site.maxNanos.get() / 1_000_000.0);
+                    bySite.put(e.getKey(), body);
+                });
+        stats.put("sites", bySite);
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        RecordingStream recording = stream;
+        if (recording != null) {
+            recording.close();
+        }
+    }
+}
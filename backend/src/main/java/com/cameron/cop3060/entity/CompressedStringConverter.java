@@ -0,0 +1,70 @@
+package com.cameron.cop3060.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores large text columns gzip-compressed
+ * 
+ * Text is gzipped on write and unzipped on read. Values under
+ * MIN_COMPRESS_BYTES are stored as plain UTF-8, where gzip's header would
+ * outweigh the saving; reads tell the two apart by the gzip magic bytes
+ * (JSON never starts with 0x1f).
+ * 
+ * @author Cameron Brown
+ */
+@Converter
+public class CompressedStringConverter implements AttributeConverter<String, byte[]> {
+
+    static final int MIN_COMPRESS_BYTES = 256;
+
+    private static final int GZIP_MAGIC_0 = 0x1f;
+    private static final int GZIP_MAGIC_1 = 0x8b;
+
+    @Override
+    public byte[] convertToDatabaseColumn(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] raw = value.getBytes(StandardCharsets.UTF_8);
+        if (raw.length < MIN_COMPRESS_BYTES) {
+            return raw;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(raw);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress column value", e);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public String convertToEntityAttribute(byte[] column) {
+        if (column == null) {
+            return null;
+        }
+        if (!isCompressed(column)) {
+            return new String(column, StandardCharsets.UTF_8);
+        }
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(column))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not decompress column value", e);
+        }
+    }
+
+    private static boolean isCompressed(byte[] column) {
+        return column.length > 2
+                && (column[0] & 0xff) == GZIP_MAGIC_0
+                && (column[1] & 0xff) == GZIP_MAGIC_1;
+    }
+}
@@ -7,6 +7,8 @@ import java.time.LocalDateTime;
 /**
  * ExternalMovieCache Entity - Caches movie data from external APIs
  * Stores data from TMDB API to reduce API calls and improve performance
+ * The raw API response lives in ExternalMoviePayload, so reading a row
+ * never pulls the full JSON
  * 
  * @author Cameron Brown
  */
@@ -112,9 +114,6 @@ public class ExternalMovieCache {
     @Column(nullable = false, length = 50)
     private String source = "TMDB"; // API source
 
-    @Column(name = "api_response", columnDefinition = "TEXT")
-    private String apiResponse; // Raw JSON response for debugging
-
     @Column(name = "last_fetched", nullable = false)
     private LocalDateTime lastFetched;
 
@@ -186,9 +185,16 @@ public class ExternalMovieCache {
      * Refresh the cache expiration
      */
     public void refreshCache(int hoursToLive) {
+        extendExpiry(hoursToLive);
+        this.fetchCount = (this.fetchCount != null) ? this.fetchCount + 1 : 1;
+    }
+
+    /**
+     * Mark the row as freshly fetched without counting it as a request
+     */
+    public void extendExpiry(int hoursToLive) {
         this.lastFetched = LocalDateTime.now();
         this.expiresAt = LocalDateTime.now().plusHours(hoursToLive);
-        this.fetchCount = (this.fetchCount != null) ? this.fetchCount + 1 : 1;
     }
 
     /**
@@ -313,9 +319,6 @@ public class ExternalMovieCache {
     public String getSource() { return source; }
     public void setSource(String source) { this.source = source; }
 
-    public String getApiResponse() { return apiResponse; }
-    public void setApiResponse(String apiResponse) { this.apiResponse = apiResponse; }
-
     public LocalDateTime getLastFetched() { return lastFetched; }
     public void setLastFetched(LocalDateTime lastFetched) { this.lastFetched = lastFetched; }
 
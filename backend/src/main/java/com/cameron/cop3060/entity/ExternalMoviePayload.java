@@ -0,0 +1,85 @@
+package com.cameron.cop3060.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * ExternalMoviePayload Entity - Raw TMDB response for one cached movie
+ * Kept out of external_movie_cache so listing and lookups over the cache
+ * never read the payload; it is loaded only when asked for by id.
+ * Stored gzip-compressed (CompressedStringConverter).
+ * 
+ * @author Cameron Brown
+ */
+@Entity
+@Table(name = "external_movie_payload")
+public class ExternalMoviePayload {
+
+    // ==========================================
+    // PRIMARY KEY (same as external_movie_cache.id)
+    // ==========================================
+    @Id
+    private Long id;
+
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "cache_id")
+    private ExternalMovieCache movie;
+
+    // ==========================================
+    // PAYLOAD
+    // ==========================================
+    @Convert(converter = CompressedStringConverter.class)
+    @Column(name = "api_response_gz", length = 4 * 1024 * 1024)
+    private String apiResponse; // Raw JSON response for debugging
+
+    @Column(name = "raw_length")
+    private Integer rawLength; // Uncompressed length in chars, for tracking the compression ratio
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // ==========================================
+    // LIFECYCLE CALLBACKS
+    // ==========================================
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // ==========================================
+    // CONSTRUCTORS
+    // ==========================================
+    public ExternalMoviePayload() {}
+
+    public ExternalMoviePayload(ExternalMovieCache movie, String apiResponse) {
+        this.movie = movie;
+        setApiResponse(apiResponse);
+    }
+
+    // ==========================================
+    // GETTERS AND SETTERS
+    // ==========================================
+    public Long getId() { return id; }
+
+    public ExternalMovieCache getMovie() { return movie; }
+    public void setMovie(ExternalMovieCache movie) { this.movie = movie; }
+
+    public String getApiResponse() { return apiResponse; }
+    public void setApiResponse(String apiResponse) {
+        this.apiResponse = apiResponse;
+        this.rawLength = apiResponse == null ? null : apiResponse.length();
+    }
+
+    public Integer getRawLength() { return rawLength; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    @Override
+    public String toString() {
+        return "ExternalMoviePayload{" +
+                "id=" + id +
+                ", rawLength=" + rawLength +
+                '}';
+    }
+}
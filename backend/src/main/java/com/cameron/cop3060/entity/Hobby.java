@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class Hobby {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "hobby_seq")
+    @SequenceGenerator(name = "hobby_seq", sequenceName = "hobbies_seq", initialValue = 1000, allocationSize = 500)
     private Long id;
 
     @NotBlank(message = "Hobby name is required")
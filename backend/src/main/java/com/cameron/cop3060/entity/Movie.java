@@ -8,11 +8,17 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "movies")
+@Table(name = "movies", indexes = {
+    // (column, id) so keyset pages are pure index range scans
+    @Index(name = "idx_movie_title", columnList = "title, id"),
+    @Index(name = "idx_movie_year", columnList = "year_released, id"),
+    @Index(name = "idx_movie_rating", columnList = "rating, id")
+})
 public class Movie {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_seq")
+    @SequenceGenerator(name = "movie_seq", sequenceName = "movies_seq", initialValue = 1000, allocationSize = 500)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -0,0 +1,147 @@
+package com.cameron.cop3060.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * SyncCheckpoint Entity - Progress of a background sync job
+ * 
+ * Saved after every chunk, so a run that is interrupted (restart, budget
+ * used up, crash) resumes from the last committed keyset position instead
+ * of rescanning from the start.
+ * 
+ * @author Cameron Brown
+ */
+@Entity
+@Table(name = "sync_checkpoints")
+public class SyncCheckpoint {
+
+    public enum Status { RUNNING, COMPLETED }
+
+    // ==========================================
+    // PRIMARY KEY
+    // ==========================================
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    // ==========================================
+    // RUN STATE
+    // ==========================================
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.COMPLETED;
+
+    // Rows expiring before this are in scope for the current run
+    @Column(name = "horizon")
+    private LocalDateTime horizon;
+
+    // Keyset cursor: last (expires_at, id) fully processed
+    @Column(name = "last_expires_at")
+    private LocalDateTime lastExpiresAt;
+
+    @Column(name = "last_id")
+    private Long lastId;
+
+    @Column(name = "processed")
+    private Long processed = 0L;
+
+    @Column(name = "refreshed")
+    private Long refreshed = 0L;
+
+    @Column(name = "run_started_at")
+    private LocalDateTime runStartedAt;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // ==========================================
+    // LIFECYCLE CALLBACKS
+    // ==========================================
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // ==========================================
+    // CONSTRUCTORS
+    // ==========================================
+    public SyncCheckpoint() {}
+
+    public SyncCheckpoint(String jobName) {
+        this.jobName = jobName;
+    }
+
+    // ==========================================
+    // UTILITY METHODS
+    // ==========================================
+
+    /**
+     * Reset for a new run over rows expiring before the given horizon
+     */
+    public void startRun(LocalDateTime horizon, LocalDateTime cursorStart) {
+        this.status = Status.RUNNING;
+        this.horizon = horizon;
+        this.lastExpiresAt = cursorStart;
+        this.lastId = 0L;
+        this.processed = 0L;
+        this.refreshed = 0L;
+        this.runStartedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Record a finished chunk
+     */
+    public void advance(LocalDateTime expiresAt, Long id, int chunkSize, int chunkRefreshed) {
+        this.lastExpiresAt = expiresAt;
+        this.lastId = id;
+        this.processed += chunkSize;
+        this.refreshed += chunkRefreshed;
+    }
+
+    public boolean isRunning() {
+        return status == Status.RUNNING;
+    }
+
+    // ==========================================
+    // GETTERS AND SETTERS
+    // ==========================================
+    public String getJobName() { return jobName; }
+    public void setJobName(String jobName) { this.jobName = jobName; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public LocalDateTime getHorizon() { return horizon; }
+    public void setHorizon(LocalDateTime horizon) { this.horizon = horizon; }
+
+    public LocalDateTime getLastExpiresAt() { return lastExpiresAt; }
+    public void setLastExpiresAt(LocalDateTime lastExpiresAt) { this.lastExpiresAt = lastExpiresAt; }
+
+    public Long getLastId() { return lastId; }
+    public void setLastId(Long lastId) { this.lastId = lastId; }
+
+    public Long getProcessed() { return processed; }
+    public void setProcessed(Long processed) { this.processed = processed; }
+
+    public Long getRefreshed() { return refreshed; }
+    public void setRefreshed(Long refreshed) { this.refreshed = refreshed; }
+
+    public LocalDateTime getRunStartedAt() { return runStartedAt; }
+    public void setRunStartedAt(LocalDateTime runStartedAt) { this.runStartedAt = runStartedAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+
+    @Override
+    public String toString() {
+        return "SyncCheckpoint{" +
+                "jobName='" + jobName + '\'' +
+                ", status=" + status +
+                ", lastExpiresAt=" + lastExpiresAt +
+                ", lastId=" + lastId +
+                ", processed=" + processed +
+                ", refreshed=" + refreshed +
+                '}';
+    }
+}
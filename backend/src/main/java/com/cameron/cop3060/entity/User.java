@@ -11,7 +11,8 @@ import java.util.Set;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "users_seq", initialValue = 1000, allocationSize = 500)
     private Long id;
 
     @NotBlank(message = "First name is required")
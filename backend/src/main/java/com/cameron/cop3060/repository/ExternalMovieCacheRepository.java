@@ -0,0 +1,54 @@
+package com.cameron.cop3060.repository;
+
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ExternalMovieCacheRepository extends JpaRepository<ExternalMovieCache, Long> {
+
+    Optional<ExternalMovieCache> findByTmdbId(Long tmdbId);
+
+    // One round trip for a whole upsert batch (uses idx_cache_tmdb_id)
+    List<ExternalMovieCache> findByTmdbIdIn(Collection<Long> tmdbIds);
+
+    // Most requested movies first, for warming the in-process cache
+    List<ExternalMovieCache> findAllByOrderByFetchCountDesc(Pageable pageable);
+
+    // Demand counted by TieredMovieCache, added in bulk
+    @Modifying
+    @Query("UPDATE ExternalMovieCache c SET c.fetchCount = COALESCE(c.fetchCount, 0) + :count WHERE c.tmdbId IN :tmdbIds")
+    int addFetchCount(@Param("tmdbIds") Collection<Long> tmdbIds, @Param("count") int count);
+
+    // Listing: summary columns only
+    Page<ExternalMovieSummary> findBy(Pageable pageable);
+
+    Page<ExternalMovieSummary> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    List<ExternalMovieSummary> findSummariesByTmdbIdIn(Collection<Long> tmdbIds);
+
+    // Id-ordered pages for building in-memory indexes
+    List<ExternalMovieSummary> findByIdGreaterThanOrderByIdAsc(Long afterId, Pageable pageable);
+
+    // Keyset page over idx_cache_expires: rows expiring before the horizon, after the (expiresAt, id) cursor
+    @Query("SELECT c.id AS id, c.tmdbId AS tmdbId, c.title AS title, c.releaseYear AS releaseYear, " +
+           "c.voteAverage AS voteAverage, c.popularity AS popularity, c.genreIds AS genreIds, c.posterPath AS posterPath, " +
+           "c.fetchCount AS fetchCount, c.expiresAt AS expiresAt, c.isDetailed AS isDetailed " +
+           "FROM ExternalMovieCache c " +
+           "WHERE c.expiresAt < :horizon " +
+           "AND (c.expiresAt > :afterExpiresAt OR (c.expiresAt = :afterExpiresAt AND c.id > :afterId)) " +
+           "ORDER BY c.expiresAt ASC, c.id ASC")
+    List<ExternalMovieSummary> findExpiringAfter(@Param("horizon") LocalDateTime horizon,
+                                                 @Param("afterExpiresAt") LocalDateTime afterExpiresAt,
+                                                 @Param("afterId") Long afterId,
+                                                 Pageable pageable);
+}
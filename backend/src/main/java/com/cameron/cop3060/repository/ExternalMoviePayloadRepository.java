@@ -0,0 +1,15 @@
+package com.cameron.cop3060.repository;
+
+import com.cameron.cop3060.entity.ExternalMoviePayload;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.util.Optional;
+
+@Repository
+public interface ExternalMoviePayloadRepository extends JpaRepository<ExternalMoviePayload, Long> {
+
+    @Query("SELECT p FROM ExternalMoviePayload p WHERE p.movie.tmdbId = :tmdbId")
+    Optional<ExternalMoviePayload> findByTmdbId(@Param("tmdbId") Long tmdbId);
+}
@@ -0,0 +1,35 @@
+package com.cameron.cop3060.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of an external_movie_cache row
+ * Spring Data selects only these columns, so neither overview nor the
+ * payload table is read
+ * 
+ * @author Cameron Brown
+ */
+public interface ExternalMovieSummary {
+
+    Long getId();
+
+    Long getTmdbId();
+
+    String getTitle();
+
+    Integer getReleaseYear();
+
+    Double getVoteAverage();
+
+    Double getPopularity();
+
+    String getGenreIds();
+
+    String getPosterPath();
+
+    Integer getFetchCount();
+
+    LocalDateTime getExpiresAt();
+
+    Boolean getIsDetailed();
+}
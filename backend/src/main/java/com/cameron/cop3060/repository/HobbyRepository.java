@@ -2,7 +2,10 @@ package com.cameron.cop3060.repository;
 
 import com.cameron.cop3060.entity.Hobby;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -13,4 +16,9 @@ public interface HobbyRepository extends JpaRepository<Hobby, Long> {
     List<Hobby> findByCategory(Hobby.Category category);
     
     List<Hobby> findByNameContainingIgnoreCase(String name);
+
+    // Hobbies of a whole page of users in one statement
+    @Query("SELECT h.user.id AS userId, h.id AS id, h.name AS name, h.category AS category " +
+           "FROM Hobby h WHERE h.user.id IN :userIds ORDER BY h.user.id, h.name")
+    List<UserHobbyRow> findRowsByUserIdIn(@Param("userIds") Collection<Long> userIds);
 }
@@ -1,8 +1,11 @@
 package com.cameron.cop3060.repository;
 
 import com.cameron.cop3060.entity.Movie;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
 
@@ -25,4 +28,55 @@ public interface MovieRepository extends JpaRepository<Movie, Long> {
     List<Movie> findAllByOrderByTitleAsc();
     
     List<Movie> findAllByOrderByYearReleasedDesc();
+
+    // ==========================================
+    // SLICE VARIANTS (offset paging, no count query)
+    // ==========================================
+    Slice<Movie> findAllBy(Pageable pageable);
+
+    Slice<Movie> findByGenreIgnoreCase(String genre, Pageable pageable);
+
+    Slice<Movie> findByYearReleasedBetween(Integer startYear, Integer endYear, Pageable pageable);
+
+    Slice<Movie> findByRatingGreaterThanEqual(Double rating, Pageable pageable);
+
+    Slice<Movie> findByTitleContainingIgnoreCase(String title, Pageable pageable);
+
+    // ==========================================
+    // KEYSET VARIANTS (seek past the last (value, id); pass PageRequest.of(0, n) as the limit)
+    // ==========================================
+    @Query("SELECT m FROM Movie m " +
+           "WHERE m.title > :title OR (m.title = :title AND m.id > :id) " +
+           "ORDER BY m.title ASC, m.id ASC")
+    List<Movie> findByTitleAfter(@Param("title") String title, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT m FROM Movie m " +
+           "WHERE m.yearReleased < :year OR (m.yearReleased = :year AND m.id < :id) " +
+           "ORDER BY m.yearReleased DESC, m.id DESC")
+    List<Movie> findByYearReleasedBefore(@Param("year") Integer year, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT m FROM Movie m " +
+           "WHERE m.yearReleased BETWEEN :startYear AND :endYear " +
+           "AND (m.yearReleased > :year OR (m.yearReleased = :year AND m.id > :id)) " +
+           "ORDER BY m.yearReleased ASC, m.id ASC")
+    List<Movie> findByYearReleasedBetweenAfter(@Param("startYear") Integer startYear, @Param("endYear") Integer endYear,
+                                               @Param("year") Integer year, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT m FROM Movie m " +
+           "WHERE m.rating >= :minRating " +
+           "AND (m.rating < :rating OR (m.rating = :rating AND m.id < :id)) " +
+           "ORDER BY m.rating DESC, m.id DESC")
+    List<Movie> findByRatingAtLeastBefore(@Param("minRating") Double minRating,
+                                          @Param("rating") Double rating, @Param("id") Long id, Pageable limit);
+
+    @Query("SELECT m FROM Movie m " +
+           "WHERE LOWER(m.genre) = LOWER(:genre) " +
+           "AND (m.title > :title OR (m.title = :title AND m.id > :id)) " +
+           "ORDER BY m.title ASC, m.id ASC")
+    List<Movie> findByGenreAfter(@Param("genre") String genre,
+                                 @Param("title") String title, @Param("id") Long id, Pageable limit);
+
+    // Just what the in-process title index needs
+    @Query("SELECT m.id AS id, m.title AS title FROM Movie m")
+    List<MovieTitle> findAllTitles();
 }
@@ -0,0 +1,13 @@
+package com.cameron.cop3060.repository;
+
+/**
+ * (id, title) projection of a movie, used to build the title search index
+ * 
+ * @author Cameron Brown
+ */
+public interface MovieTitle {
+
+    Long getId();
+
+    String getTitle();
+}
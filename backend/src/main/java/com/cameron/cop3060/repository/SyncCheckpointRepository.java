@@ -0,0 +1,9 @@
+package com.cameron.cop3060.repository;
+
+import com.cameron.cop3060.entity.SyncCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface SyncCheckpointRepository extends JpaRepository<SyncCheckpoint, String> {
+}
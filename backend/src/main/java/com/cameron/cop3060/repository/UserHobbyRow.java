@@ -0,0 +1,19 @@
+package com.cameron.cop3060.repository;
+
+import com.cameron.cop3060.entity.Hobby;
+
+/**
+ * A hobby tagged with its user, from the batched IN (...) hobby query
+ * 
+ * @author Cameron Brown
+ */
+public interface UserHobbyRow {
+
+    Long getUserId();
+
+    Long getId();
+
+    String getName();
+
+    Hobby.Category getCategory();
+}
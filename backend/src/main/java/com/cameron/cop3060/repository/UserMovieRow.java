@@ -0,0 +1,17 @@
+package com.cameron.cop3060.repository;
+
+/**
+ * A favorite movie tagged with its user, from the batched IN (...) movie query
+ * 
+ * @author Cameron Brown
+ */
+public interface UserMovieRow {
+
+    Long getUserId();
+
+    Long getId();
+
+    String getTitle();
+
+    Integer getYearReleased();
+}
@@ -1,11 +1,20 @@
 package com.cameron.cop3060.repository;
 
 import com.cameron.cop3060.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -23,4 +32,51 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     @Query("SELECT u FROM User u LEFT JOIN FETCH u.favoriteMovies WHERE u.id = :id")
     Optional<User> findByIdWithMovies(Long id);
+
+    // Listing page: scalar columns only (plus its count query)
+    @Query(value = "SELECT u.id AS id, u.firstName AS firstName, u.lastName AS lastName, u.email AS email, " +
+                   "u.isSubscribed AS isSubscribed, u.createdAt AS createdAt FROM User u",
+           countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserRow> findUserRows(Pageable pageable);
+
+    // Favorite movies of a whole page of users in one statement
+    @Query("SELECT u.id AS userId, m.id AS id, m.title AS title, m.yearReleased AS yearReleased " +
+           "FROM User u JOIN u.favoriteMovies m WHERE u.id IN :userIds ORDER BY u.id, m.title")
+    List<UserMovieRow> findFavoriteMovieRows(@Param("userIds") Collection<Long> userIds);
+
+    // ---- user_favorite_movies, touched directly so the favorites set is never loaded ----
+
+    // Pairs already present and movie ids with no movie row are skipped. Portable SQL (H2, MySQL, PostgreSQL),
+    // but not atomic: a concurrent insert of the same pair can still fail on the primary key (UserService retries)
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_favorite_movies (user_id, movie_id) " +
+                   "SELECT :userId, m.id FROM movies m WHERE m.id IN (:movieIds) " +
+                   "AND NOT EXISTS (SELECT 1 FROM user_favorite_movies f WHERE f.user_id = :userId AND f.movie_id = m.id)",
+           nativeQuery = true)
+    int insertFavoriteMovies(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM user_favorite_movies WHERE user_id = :userId AND movie_id IN (:movieIds)",
+           nativeQuery = true)
+    int deleteFavoriteMovies(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    @Query(value = "SELECT COUNT(*) FROM user_favorite_movies WHERE user_id = :userId AND movie_id = :movieId",
+           nativeQuery = true)
+    long countFavoriteMovie(@Param("userId") Long userId, @Param("movieId") Long movieId);
+
+    // Which of these are favorites now (primary key range on user_id, no entities)
+    @Query(value = "SELECT movie_id FROM user_favorite_movies WHERE user_id = :userId AND movie_id IN (:movieIds)",
+           nativeQuery = true)
+    List<Long> findFavoriteMovieIdsIn(@Param("userId") Long userId, @Param("movieIds") Collection<Long> movieIds);
+
+    // Every (user_id, movie_id) pair, streamed for the recommendation model build; call inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query(value = "SELECT user_id, movie_id FROM user_favorite_movies", nativeQuery = true)
+    Stream<Object[]> streamFavoritePairs();
+
+    // [pair count, hash] in one row; the hash matches CoOccurrenceModel.fingerprintTerm
+    @Query(value = "SELECT COUNT(*), COALESCE(SUM(MOD(user_id * 7919 + movie_id * 104729, 1000000007)), 0) " +
+                   "FROM user_favorite_movies",
+           nativeQuery = true)
+    List<Object[]> favoritePairsFingerprint();
 }
@@ -0,0 +1,23 @@
+package com.cameron.cop3060.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scalar columns of a user for listings (no collections, no password)
+ * 
+ * @author Cameron Brown
+ */
+public interface UserRow {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getEmail();
+
+    Boolean getIsSubscribed();
+
+    LocalDateTime getCreatedAt();
+}
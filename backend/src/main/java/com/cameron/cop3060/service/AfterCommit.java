@@ -0,0 +1,32 @@
+package com.cameron.cop3060.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers in-memory side effects (indexes, models) until the surrounding
+ * transaction commits, so a rollback never leaves them ahead of the table
+ *
+ * @author Cameron Brown
+ */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /**
+     * Run {@code action} once the current transaction commits, or right away
+     * when there is no transaction; dropped on rollback
+     */
+    public static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.cameron.cop3060.service;
+
+import com.cameron.cop3060.entity.Hobby;
+import com.cameron.cop3060.entity.Movie;
+import com.cameron.cop3060.entity.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Streams CSV or NDJSON uploads straight into movies, users or hobbies
+ * 
+ * Records are read one at a time from the request body, validated, and
+ * persisted through the EntityManager. Sequence ids are handed out from
+ * Hibernate's pooled optimizer (no round trip per row), so with
+ * hibernate.jdbc.batch_size / order_inserts every {@code bulk.flush-size}
+ * rows go out as one JDBC batch; the persistence context is then cleared so
+ * memory stays flat. Every {@code bulk.commit-size} rows are committed as
+ * one transaction: a database error rolls back only the current chunk and
+ * stops the upload, and the report says how many rows made it.
+ * 
+ * Invalid records (parse or bean validation errors) are skipped and
+ * reported; they never reach the database.
+ * 
+ * @author Cameron Brown
+ */
+@Service
+public class BulkIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkIngestService.class);
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    public enum Target { MOVIES, USERS, HOBBIES }
+
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * Outcome of one upload
+     *
+     * @param rows    rows committed
+     * @param aborted why the upload stopped early, or null if it ran to the end
+     */
+    public record IngestReport(String entity, long rows, long rejected, long millis, long rowsPerSecond,
+                               List<String> errors, String aborted) {}
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final MovieService movieService;
+    private final int flushSize;
+    private final int commitSize;
+
+    public BulkIngestService(PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper,
+                             Validator validator,
+                             MovieService movieService,
+                             @Value("${bulk.flush-size:500}") int flushSize,
+                             @Value("${bulk.commit-size:20000}") int commitSize) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.movieService = movieService;
+        this.flushSize = flushSize;
+        this.commitSize = commitSize;
+    }
+
+    /** Per-upload counters */
+    private static final class Progress {
+        long record;
+        long rows;
+        long rejected;
+        final List<String> errors = new ArrayList<>();
+
+        void reject(String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("record " + record + ": " + message);
+            }
+        }
+    }
+
+    public IngestReport ingest(Target target, Format format, InputStream body) {
+        long started = System.nanoTime();
+        Progress progress = new Progress();
+        String aborted = null;
+
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8), 1 << 16);
+        try {
+            Iterator<Map<String, Object>> records = records(format, reader);
+            while (records.hasNext()) {
+                Map<Long, String> titles = new HashMap<>();
+                Integer committed = transactionTemplate.execute(status -> persistChunk(target, records, progress, titles));
+                progress.rows += committed == null ? 0 : committed;
+                if (!titles.isEmpty()) {
+                    movieService.indexImported(titles);
+                }
+            }
+        } catch (DataAccessException | PersistenceException e) {
+            aborted = "Database rejected a chunk after " + progress.rows + " rows: " + rootMessage(e);
+        } catch (IOException | UncheckedIOException | IllegalArgumentException | RuntimeJsonMappingException e) {
+            aborted = "Unreadable " + format + " near record " + progress.record + ": " + e.getMessage();
+        }
+
+        long nanos = Math.max(1, System.nanoTime() - started);
+        long rowsPerSecond = progress.rows * 1_000_000_000L / nanos;
+        log.info("Bulk ingest of {}: {} rows, {} rejected in {} ms ({} rows/s){}", target, progress.rows,
+                progress.rejected, nanos / 1_000_000, rowsPerSecond, aborted == null ? "" : "; " + aborted);
+        return new IngestReport(target.name().toLowerCase(Locale.ROOT), progress.rows, progress.rejected,
+                nanos / 1_000_000, rowsPerSecond, progress.errors, aborted);
+    }
+
+    /**
+     * Persist up to commitSize records in the current transaction
+     *
+     * @return rows persisted
+     */
+    private int persistChunk(Target target, Iterator<Map<String, Object>> records, Progress progress,
+                             Map<Long, String> titles) {
+        int rows = 0;
+        while (rows < commitSize && records.hasNext()) {
+            progress.record++;
+            Object entity;
+            try {
+                entity = toEntity(target, records.next());
+            } catch (IllegalArgumentException | RuntimeJsonMappingException e) {
+                // A bad CSV row or NDJSON line; the NDJSON iterator skips past it on the next hasNext()
+                progress.reject(e.getMessage());
+                continue;
+            }
+            Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+            if (!violations.isEmpty()) {
+                progress.reject(violations.stream()
+                        .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+                continue;
+            }
+
+            entityManager.persist(entity);
+            if (entity instanceof Movie movie) {
+                titles.put(movie.getId(), movie.getTitle());
+            }
+            if (++rows % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return rows;
+    }
+
+    private Object toEntity(Target target, Map<String, Object> record) {
+        record.remove("id"); // ids always come from the sequence
+        return switch (target) {
+            case MOVIES -> objectMapper.convertValue(record, Movie.class);
+            case USERS -> objectMapper.convertValue(record, User.class);
+            case HOBBIES -> {
+                Object userId = record.remove("userId");
+                if (userId == null) {
+                    throw new IllegalArgumentException("userId is required");
+                }
+                Hobby hobby = objectMapper.convertValue(record, Hobby.class);
+                // A reference, not a SELECT; a missing user fails the chunk on the foreign key
+                hobby.setUser(entityManager.getReference(User.class, Long.valueOf(userId.toString())));
+                yield hobby;
+            }
+        };
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable root = e;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private Iterator<Map<String, Object>> records(Format format, Reader reader) throws IOException {
+        if (format == Format.CSV) {
+            return new CsvRecordReader(reader);
+        }
+        return objectMapper.readerForMapOf(Object.class).readValues(reader);
+    }
+}
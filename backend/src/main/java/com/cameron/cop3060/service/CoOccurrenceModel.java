@@ -0,0 +1,498 @@
+package com.cameron.cop3060.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Item-to-item co-occurrence counts over user_favorite_movies
+ *
+ * For every movie the model keeps a sparse row: other movie id -> number of
+ * users who favorited both (an IntIntMap), plus how many users favorited the
+ * movie at all. "Users who liked this also liked" ranks a row by cosine
+ * similarity, together / sqrt(likes(a) * likes(b)), which keeps merely
+ * popular movies from topping every list, shrunk by together / (together +
+ * SHRINKAGE) so a pair seen once among rarely liked movies doesn't outrank
+ * one many users share.
+ *
+ * Each user's favorites are kept as a plain int array so a single add or
+ * remove updates exactly the rows it touches: O(favorites of that user).
+ * Movies and users live in dense slots (reused when freed), so there are no
+ * boxed ids or per-entry objects anywhere.
+ *
+ * A fingerprint (pair count plus a modular sum over the pairs) is kept
+ * current so a snapshot can be checked against the table with one
+ * aggregate query; see {@link #fingerprintTerm}.
+ *
+ * @author Cameron Brown
+ */
+final class CoOccurrenceModel {
+
+    private static final int MAGIC = 0x434F4F43; // "COOC"
+    private static final int VERSION = 1;
+    private static final int SPLIT_THRESHOLD = 64;
+    private static final double SHRINKAGE = 5.0;
+
+    /** One recommendation: the movie, its score and how many users favorited both */
+    record Scored(int movieId, double score, int together) {}
+
+    /** Pair count and modular hash of every (user, movie) pair in the model */
+    record Fingerprint(long pairs, long hash) {}
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock. Slot maps store slot + 1 so that 0 (IntIntMap's "absent") stays free
+    private final IntIntMap movieSlots = new IntIntMap();
+    private int[] movieIds = new int[64];
+    private int[] likes = new int[64];
+    private IntIntMap[] rows = new IntIntMap[64];
+    private final SlotPool freeMovies = new SlotPool();
+    private int movieSlotCount;
+
+    private final IntIntMap userSlots = new IntIntMap();
+    private int[] userIds = new int[64];
+    private int[][] userItems = new int[64][];
+    private int[] userItemCounts = new int[64];
+    private final SlotPool freeUsers = new SlotPool();
+    private int userSlotCount;
+
+    private long pairs;
+    private long hash;
+
+    /** (user, movie) contribution to the fingerprint; must match the SQL in UserRepository */
+    static long fingerprintTerm(long userId, long movieId) {
+        return (userId * 7919 + movieId * 104729) % 1_000_000_007L;
+    }
+
+    // ==================== Queries ====================
+
+    /**
+     * Top movies favorited by the same users, best first
+     */
+    List<Scored> top(int movieId, int limit) {
+        lock.readLock().lock();
+        try {
+            int slot = movieSlots.get(movieId) - 1;
+            if (slot < 0 || limit <= 0) {
+                return List.of();
+            }
+            IntIntMap row = rows[slot];
+            double norm = likes[slot];
+
+            int[] ids = new int[limit];
+            int[] together = new int[limit];
+            double[] scores = new double[limit];
+            int found = 0;
+            for (int i = 0, n = row.capacity(); i < n; i++) {
+                int other = row.keyAt(i);
+                if (other == 0) {
+                    continue;
+                }
+                int count = row.valueAt(i);
+                double score = count / Math.sqrt(norm * likes[movieSlots.get(other) - 1]) * count / (count + SHRINKAGE);
+                if (found == limit && !better(score, count, other, scores[limit - 1], together[limit - 1], ids[limit - 1])) {
+                    continue;
+                }
+                // Insertion into the short sorted arrays
+                int at = found < limit ? found++ : limit - 1;
+                while (at > 0 && better(score, count, other, scores[at - 1], together[at - 1], ids[at - 1])) {
+                    ids[at] = ids[at - 1];
+                    together[at] = together[at - 1];
+                    scores[at] = scores[at - 1];
+                    at--;
+                }
+                ids[at] = other;
+                together[at] = count;
+                scores[at] = score;
+            }
+
+            List<Scored> result = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                result.add(new Scored(ids[i], scores[i], together[i]));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Higher score first, then more shared users, then lower id so ties are stable */
+    private static boolean better(double score, int count, int id, double otherScore, int otherCount, int otherId) {
+        if (score != otherScore) {
+            return score > otherScore;
+        }
+        if (count != otherCount) {
+            return count > otherCount;
+        }
+        return id < otherId;
+    }
+
+    Fingerprint fingerprint() {
+        lock.readLock().lock();
+        try {
+            return new Fingerprint(pairs, hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int movieCount() {
+        lock.readLock().lock();
+        try {
+            return movieSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int userCount() {
+        lock.readLock().lock();
+        try {
+            return userSlots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ==================== Incremental updates ====================
+
+    /** @return false if the user already had this favorite */
+    boolean add(int userId, int movieId) {
+        lock.writeLock().lock();
+        try {
+            int user = userSlot(userId);
+            int[] items = userItems[user];
+            int count = userItemCounts[user];
+            if (indexOf(items, count, movieId) >= 0) {
+                return false;
+            }
+            int movie = movieSlot(movieId);
+            for (int i = 0; i < count; i++) {
+                int other = items[i];
+                rows[movie].addTo(other, 1);
+                rows[movieSlots.get(other) - 1].addTo(movieId, 1);
+            }
+            likes[movie]++;
+            if (count == items.length) {
+                userItems[user] = items = Arrays.copyOf(items, Math.max(4, count * 2));
+            }
+            items[count] = movieId;
+            userItemCounts[user] = count + 1;
+            pairs++;
+            hash += fingerprintTerm(userId, movieId);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** @return false if it was not a favorite */
+    boolean remove(int userId, int movieId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(userId, movieId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeUser(int userId) {
+        lock.writeLock().lock();
+        try {
+            int user = userSlots.get(userId) - 1;
+            while (user >= 0 && userItemCounts[user] > 0) {
+                removeLocked(userId, userItems[user][userItemCounts[user] - 1]);
+                user = userSlots.get(userId) - 1;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Drop a movie from every user's favorites (scans users; movie deletes are rare) */
+    void removeMovie(int movieId) {
+        lock.writeLock().lock();
+        try {
+            if (movieSlots.get(movieId) == 0) {
+                return;
+            }
+            for (int user = 0; user < userSlotCount; user++) {
+                int[] items = userItems[user];
+                if (items != null && indexOf(items, userItemCounts[user], movieId) >= 0) {
+                    removeLocked(userIds[user], movieId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private boolean removeLocked(int userId, int movieId) {
+        int user = userSlots.get(userId) - 1;
+        if (user < 0) {
+            return false;
+        }
+        int[] items = userItems[user];
+        int count = userItemCounts[user];
+        int at = indexOf(items, count, movieId);
+        if (at < 0) {
+            return false;
+        }
+        items[at] = items[--count];
+        userItemCounts[user] = count;
+
+        int movie = movieSlots.get(movieId) - 1;
+        for (int i = 0; i < count; i++) {
+            int other = items[i];
+            rows[movie].addTo(other, -1);
+            int otherSlot = movieSlots.get(other) - 1;
+            rows[otherSlot].addTo(movieId, -1);
+        }
+        likes[movie]--;
+        pairs--;
+        hash -= fingerprintTerm(userId, movieId);
+
+        if (likes[movie] == 0) {
+            movieSlots.remove(movieId);
+            rows[movie] = null;
+            freeMovies.push(movie);
+        }
+        if (count == 0) {
+            userSlots.remove(userId);
+            userItems[user] = null;
+            freeUsers.push(user);
+        }
+        return true;
+    }
+
+    private int userSlot(int userId) {
+        int slot = userSlots.get(userId) - 1;
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = freeUsers.isEmpty() ? userSlotCount++ : freeUsers.pop();
+        if (slot == userIds.length) {
+            int capacity = slot * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            userItems = Arrays.copyOf(userItems, capacity);
+            userItemCounts = Arrays.copyOf(userItemCounts, capacity);
+        }
+        userIds[slot] = userId;
+        userItems[slot] = new int[4];
+        userItemCounts[slot] = 0;
+        userSlots.put(userId, slot + 1);
+        return slot;
+    }
+
+    private int movieSlot(int movieId) {
+        int slot = movieSlots.get(movieId) - 1;
+        if (slot >= 0) {
+            return slot;
+        }
+        slot = freeMovies.isEmpty() ? movieSlotCount++ : freeMovies.pop();
+        if (slot == movieIds.length) {
+            int capacity = slot * 2;
+            movieIds = Arrays.copyOf(movieIds, capacity);
+            likes = Arrays.copyOf(likes, capacity);
+            rows = Arrays.copyOf(rows, capacity);
+        }
+        movieIds[slot] = movieId;
+        likes[slot] = 0;
+        rows[slot] = new IntIntMap();
+        movieSlots.put(movieId, slot + 1);
+        return slot;
+    }
+
+    private static int indexOf(int[] items, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (items[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // ==================== Parallel build ====================
+
+    /**
+     * Build from every (user, movie) pair. Users and likes are counted in
+     * one pass; the co-occurrence rows, which are the O(sum of favorites^2)
+     * part, are then filled by fork/join tasks that each own a range of
+     * movie slots, so no row is ever written by two threads.
+     */
+    static CoOccurrenceModel build(int[] pairUsers, int[] pairMovies, int pairCount, ForkJoinPool pool) {
+        CoOccurrenceModel model = new CoOccurrenceModel();
+        for (int i = 0; i < pairCount; i++) {
+            int user = model.userSlot(pairUsers[i]);
+            int movie = model.movieSlot(pairMovies[i]);
+            int[] items = model.userItems[user];
+            int count = model.userItemCounts[user];
+            if (count == items.length) {
+                model.userItems[user] = items = Arrays.copyOf(items, count * 2);
+            }
+            items[count] = pairMovies[i];
+            model.userItemCounts[user] = count + 1;
+            model.likes[movie]++;
+            model.pairs++;
+            model.hash += fingerprintTerm(pairUsers[i], pairMovies[i]);
+        }
+
+        // Movie slot -> user slots, the inverted lists the row tasks walk
+        int[][] usersOf = new int[model.movieSlotCount][];
+        int[] filled = new int[model.movieSlotCount];
+        for (int movie = 0; movie < model.movieSlotCount; movie++) {
+            usersOf[movie] = new int[model.likes[movie]];
+        }
+        for (int user = 0; user < model.userSlotCount; user++) {
+            int[] items = model.userItems[user];
+            for (int i = 0, n = model.userItemCounts[user]; i < n; i++) {
+                int movie = model.movieSlots.get(items[i]) - 1;
+                usersOf[movie][filled[movie]++] = user;
+            }
+        }
+
+        pool.invoke(new RowTask(model, usersOf, 0, model.movieSlotCount));
+        return model;
+    }
+
+    private static final class RowTask extends RecursiveAction {
+
+        private final CoOccurrenceModel model;
+        private final int[][] usersOf;
+        private final int from;
+        private final int to;
+
+        RowTask(CoOccurrenceModel model, int[][] usersOf, int from, int to) {
+            this.model = model;
+            this.usersOf = usersOf;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > SPLIT_THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RowTask(model, usersOf, from, mid), new RowTask(model, usersOf, mid, to));
+                return;
+            }
+            for (int movie = from; movie < to; movie++) {
+                int movieId = model.movieIds[movie];
+                IntIntMap row = new IntIntMap(Math.min(1 << 16, model.likes[movie] * 8));
+                for (int user : usersOf[movie]) {
+                    int[] items = model.userItems[user];
+                    for (int i = 0, n = model.userItemCounts[user]; i < n; i++) {
+                        if (items[i] != movieId) {
+                            row.addTo(items[i], 1);
+                        }
+                    }
+                }
+                model.rows[movie] = row;
+            }
+        }
+    }
+
+    // ==================== Snapshot ====================
+
+    void write(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(pairs);
+            out.writeLong(hash);
+
+            out.writeInt(userSlots.size());
+            for (int user = 0; user < userSlotCount; user++) {
+                if (userItems[user] == null) {
+                    continue;
+                }
+                int count = userItemCounts[user];
+                out.writeInt(userIds[user]);
+                out.writeInt(count);
+                for (int i = 0; i < count; i++) {
+                    out.writeInt(userItems[user][i]);
+                }
+            }
+
+            out.writeInt(movieSlots.size());
+            for (int movie = 0; movie < movieSlotCount; movie++) {
+                IntIntMap row = rows[movie];
+                if (row == null) {
+                    continue;
+                }
+                out.writeInt(movieIds[movie]);
+                out.writeInt(likes[movie]);
+                out.writeInt(row.size());
+                for (int i = 0, n = row.capacity(); i < n; i++) {
+                    if (row.keyAt(i) != 0) {
+                        out.writeInt(row.keyAt(i));
+                        out.writeInt(row.valueAt(i));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static CoOccurrenceModel read(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Not a co-occurrence snapshot (or an older format)");
+        }
+        CoOccurrenceModel model = new CoOccurrenceModel();
+        model.pairs = in.readLong();
+        model.hash = in.readLong();
+
+        for (int users = in.readInt(); users > 0; users--) {
+            int user = model.userSlot(in.readInt());
+            int count = in.readInt();
+            int[] items = new int[Math.max(4, count)];
+            for (int i = 0; i < count; i++) {
+                items[i] = in.readInt();
+            }
+            model.userItems[user] = items;
+            model.userItemCounts[user] = count;
+        }
+
+        for (int movies = in.readInt(); movies > 0; movies--) {
+            int movie = model.movieSlot(in.readInt());
+            model.likes[movie] = in.readInt();
+            int size = in.readInt();
+            IntIntMap row = new IntIntMap(size);
+            for (int i = 0; i < size; i++) {
+                row.put(in.readInt(), in.readInt());
+            }
+            model.rows[movie] = row;
+        }
+        return model;
+    }
+
+    /** Stack of freed slot numbers */
+    private static final class SlotPool {
+        private int[] slots = new int[16];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        void push(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+
+        int pop() {
+            return slots[--size];
+        }
+    }
+}
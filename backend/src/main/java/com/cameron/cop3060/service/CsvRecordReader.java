@@ -0,0 +1,145 @@
+package com.cameron.cop3060.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Streaming RFC 4180 CSV reader for bulk uploads
+ * 
+ * The first record is the header. Headers may be property names
+ * (yearReleased) or column names (year_released). Each following record
+ * comes back as header -> value, with empty fields as null. Quoted fields
+ * may contain commas, doubled quotes and line breaks. Only one record is
+ * held in memory at a time.
+ * 
+ * @author Cameron Brown
+ */
+class CsvRecordReader implements Iterator<Map<String, Object>> {
+
+    private final Reader in;
+    private final String[] header;
+    private final StringBuilder field = new StringBuilder();
+    private List<String> next;
+    private int peeked = -2; // -2: nothing buffered
+
+    CsvRecordReader(Reader in) {
+        this.in = in;
+        List<String> names = readRecord();
+        if (names == null) {
+            throw new IllegalArgumentException("CSV upload is empty; the first line must be a header");
+        }
+        this.header = names.stream().map(CsvRecordReader::propertyName).toArray(String[]::new);
+        this.next = readRecord();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map<String, Object> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        List<String> values = next;
+        next = readRecord();
+        if (values.size() != header.length) {
+            throw new IllegalArgumentException("Expected " + header.length + " fields but found " + values.size());
+        }
+        Map<String, Object> record = new LinkedHashMap<>(header.length * 2);
+        for (int i = 0; i < header.length; i++) {
+            String value = values.get(i);
+            record.put(header[i], value == null || value.isEmpty() ? null : value);
+        }
+        return record;
+    }
+
+    /**
+     * @return the fields of the next non-blank record, or null at end of input
+     */
+    private List<String> readRecord() {
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n') {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (fields.isEmpty() && field.length() == 0) {
+                    any = false; // blank line
+                    continue;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+        if (!any && fields.isEmpty() && field.length() == 0) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private int read() {
+        if (peeked != -2) {
+            int c = peeked;
+            peeked = -2;
+            return c;
+        }
+        try {
+            return in.read();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int peek() {
+        if (peeked == -2) {
+            peeked = read();
+        }
+        return peeked;
+    }
+
+    /** year_released -> yearReleased; property names pass through */
+    static String propertyName(String column) {
+        String name = column.trim();
+        if (name.startsWith("\uFEFF")) {
+            name = name.substring(1); // byte order mark
+        }
+        StringBuilder sb = new StringBuilder(name.length());
+        boolean upper = false;
+        for (char ch : name.toCharArray()) {
+            if (ch == '_') {
+                upper = true;
+            } else {
+                sb.append(upper ? Character.toUpperCase(ch) : ch);
+                upper = false;
+            }
+        }
+        return sb.toString();
+    }
+}
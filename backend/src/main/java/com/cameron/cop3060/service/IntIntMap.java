@@ -0,0 +1,199 @@
+package com.cameron.cop3060.service;
+
+/**
+ * Open-addressing int -> int hash map (linear probing, no boxing)
+ *
+ * Key 0 marks an empty slot, so keys must be non-zero (database ids are).
+ * Removal shifts the following entries back instead of leaving tombstones,
+ * so lookups stay short under steady add/remove churn. Not thread-safe.
+ *
+ * @author Cameron Brown
+ */
+final class IntIntMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private int[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    IntIntMap() {
+        this(8);
+    }
+
+    IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expected / LOAD_FACTOR)) - 1) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return the value, or 0 if absent */
+    int get(int key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+            if (keys[i] == 0) {
+                return 0;
+            }
+        }
+    }
+
+    boolean containsKey(int key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+            if (keys[i] == 0) {
+                return false;
+            }
+        }
+    }
+
+    void put(int key, int value) {
+        checkKey(key);
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = key;
+        values[i] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize(keys.length << 1);
+        }
+    }
+
+    /**
+     * Add delta to a counter; an entry whose count reaches 0 is removed
+     *
+     * @return the new count
+     */
+    int addTo(int key, int delta) {
+        checkKey(key);
+        int i = slot(key);
+        while (keys[i] != 0) {
+            if (keys[i] == key) {
+                int updated = values[i] + delta;
+                if (updated == 0) {
+                    removeAt(i);
+                } else {
+                    values[i] = updated;
+                }
+                return updated;
+            }
+            i = (i + 1) & mask;
+        }
+        if (delta != 0) {
+            keys[i] = key;
+            values[i] = delta;
+            if (++size > keys.length * LOAD_FACTOR) {
+                resize(keys.length << 1);
+            }
+        }
+        return delta;
+    }
+
+    /** @return the removed value, or 0 if absent */
+    int remove(int key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                int old = values[i];
+                removeAt(i);
+                return old;
+            }
+            if (keys[i] == 0) {
+                return 0;
+            }
+        }
+    }
+
+    /** Raw table access for allocation-free iteration: a slot is in use when keyAt(i) != 0 */
+    int capacity() {
+        return keys.length;
+    }
+
+    int keyAt(int slot) {
+        return keys[slot];
+    }
+
+    int valueAt(int slot) {
+        return values[slot];
+    }
+
+    private void removeAt(int hole) {
+        size--;
+        // Backward-shift: pull later entries of the same probe run into the hole
+        int i = hole;
+        while (true) {
+            i = (i + 1) & mask;
+            int key = keys[i];
+            if (key == 0) {
+                break;
+            }
+            int home = slot(key);
+            // Move unless the entry's home lies cyclically in (hole, i]
+            if (hole <= i ? (home <= hole || home > i) : (home <= hole && home > i)) {
+                keys[hole] = key;
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        keys[hole] = 0;
+        values[hole] = 0;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            int key = oldKeys[j];
+            if (key != 0) {
+                int i = slot(key);
+                while (keys[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                keys[i] = key;
+                values[i] = oldValues[j];
+            }
+        }
+    }
+
+    private int slot(int key) {
+        // Fibonacci hashing spreads sequential ids across the table
+        return (key * 0x9E3779B9 >>> 16 ^ key * 0x9E3779B9) & mask;
+    }
+
+    private static void checkKey(int key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("IntIntMap keys must be non-zero");
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("{");
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                text.append(text.length() > 1 ? ", " : "").append(keys[i]).append('=').append(values[i]);
+            }
+        }
+        return text.append('}').toString();
+    }
+}
@@ -0,0 +1,69 @@
+package com.cameron.cop3060.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a seek (keyset) listing
+ * 
+ * The next page starts strictly after the (sort value, id) of the last row,
+ * so every page is a bounded index range scan no matter how deep it is.
+ * nextCursor is an opaque token for that position, or null on the last page.
+ * 
+ * @author Cameron Brown
+ */
+public record KeysetPage<T>(List<T> content, int size, String nextCursor) {
+
+    private static final char SEPARATOR = '\u0000';
+
+    /**
+     * Trim a fetch of size + 1 rows to one page and point the cursor at its last row
+     */
+    static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, Object> sortValue, Function<T, Long> id) {
+        if (rows.size() <= size) {
+            return new KeysetPage<>(rows, size, null);
+        }
+        List<T> page = rows.subList(0, size);
+        T last = page.get(size - 1);
+        return new KeysetPage<>(List.copyOf(page), size, encode(sortValue.apply(last), id.apply(last)));
+    }
+
+    /** Position decoded from a cursor; value is the sort column as text */
+    record Position(String value, long id) {
+
+        Integer intValue() {
+            return Integer.valueOf(value);
+        }
+
+        Double doubleValue() {
+            return Double.valueOf(value);
+        }
+    }
+
+    static String encode(Object value, long id) {
+        byte[] raw = (value + String.valueOf(SEPARATOR) + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * @return the position, or null for the first page
+     * @throws ResponseStatusException 400 if the cursor is malformed
+     */
+    static Position decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new Position(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor: " + cursor);
+        }
+    }
+}
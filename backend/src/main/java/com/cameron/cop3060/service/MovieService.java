@@ -1,31 +1,163 @@
 package com.cameron.cop3060.service;
 
+import com.cameron.cop3060.dto.MovieRecommendationDTO;
 import com.cameron.cop3060.entity.Movie;
 import com.cameron.cop3060.exception.ResourceNotFoundException;
 import com.cameron.cop3060.repository.MovieRepository;
+import com.cameron.cop3060.repository.MovieTitle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class MovieService {
 
+    private static final Logger log = LoggerFactory.getLogger(MovieService.class);
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // First-page positions: before every real (value, id)
+    private static final String FIRST_TITLE = "";
+    private static final long FIRST_ID_ASC = 0L;
+    private static final long FIRST_ID_DESC = Long.MAX_VALUE;
+
     @Autowired
     private MovieRepository movieRepository;
 
-    public List<Movie> getAllMovies() {
-        return movieRepository.findAll();
+    @Autowired
+    private RecommendationService recommendationService;
+
+    // Title search runs here instead of LIKE '%x%' table scans
+    private final TrigramIndex titleIndex = new TrigramIndex();
+
+    // ==========================================
+    // KEYSET PAGING
+    // ==========================================
+
+    /** All movies by title (idx_movie_title) */
+    @Transactional(readOnly = true)
+    public KeysetPage<Movie> pageByTitle(String after, int size) {
+        KeysetPage.Position from = KeysetPage.decode(after);
+        int limit = clamp(size);
+        List<Movie> rows = movieRepository.findByTitleAfter(
+                from == null ? FIRST_TITLE : from.value(), from == null ? FIRST_ID_ASC : from.id(), fetch(limit));
+        return KeysetPage.of(rows, limit, Movie::getTitle, Movie::getId);
+    }
+
+    /** All movies, newest first (idx_movie_year) */
+    @Transactional(readOnly = true)
+    public KeysetPage<Movie> pageByYearDesc(String after, int size) {
+        KeysetPage.Position from = KeysetPage.decode(after);
+        int limit = clamp(size);
+        List<Movie> rows = movieRepository.findByYearReleasedBefore(
+                from == null ? Integer.MAX_VALUE : parse(from::intValue),
+                from == null ? FIRST_ID_DESC : from.id(), fetch(limit));
+        return KeysetPage.of(rows, limit, Movie::getYearReleased, Movie::getId);
     }
 
+    /** Movies released in [startYear, endYear], oldest first (idx_movie_year) */
+    @Transactional(readOnly = true)
+    public KeysetPage<Movie> pageByYearRange(int startYear, int endYear, String after, int size) {
+        KeysetPage.Position from = KeysetPage.decode(after);
+        int limit = clamp(size);
+        List<Movie> rows = movieRepository.findByYearReleasedBetweenAfter(startYear, endYear,
+                from == null ? Integer.MIN_VALUE : parse(from::intValue),
+                from == null ? FIRST_ID_ASC : from.id(), fetch(limit));
+        return KeysetPage.of(rows, limit, Movie::getYearReleased, Movie::getId);
+    }
+
+    /** Movies rated at least minRating, best first (idx_movie_rating) */
+    @Transactional(readOnly = true)
+    public KeysetPage<Movie> pageByMinRating(double minRating, String after, int size) {
+        KeysetPage.Position from = KeysetPage.decode(after);
+        int limit = clamp(size);
+        List<Movie> rows = movieRepository.findByRatingAtLeastBefore(minRating,
+                from == null ? Double.MAX_VALUE : parse(from::doubleValue),
+                from == null ? FIRST_ID_DESC : from.id(), fetch(limit));
+        return KeysetPage.of(rows, limit, Movie::getRating, Movie::getId);
+    }
+
+    /** Movies of one genre by title */
+    @Transactional(readOnly = true)
+    public KeysetPage<Movie> pageByGenre(String genre, String after, int size) {
+        KeysetPage.Position from = KeysetPage.decode(after);
+        int limit = clamp(size);
+        List<Movie> rows = movieRepository.findByGenreAfter(genre,
+                from == null ? FIRST_TITLE : from.value(), from == null ? FIRST_ID_ASC : from.id(), fetch(limit));
+        return KeysetPage.of(rows, limit, Movie::getTitle, Movie::getId);
+    }
+
+    // ==========================================
+    // OFFSET PAGING (Slice: no count query)
+    // ==========================================
+
+    /**
+     * Offset page for callers that need page numbers; cost grows with the
+     * page number, so prefer the keyset methods for deep paging
+     */
+    @Transactional(readOnly = true)
+    public Slice<Movie> sliceMovies(String genre, Double minRating, Integer startYear, Integer endYear,
+                                    int page, int size, Sort sort) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), clamp(size), sort.and(Sort.by("id")));
+        if (genre != null) {
+            return movieRepository.findByGenreIgnoreCase(genre, pageable);
+        }
+        if (minRating != null) {
+            return movieRepository.findByRatingGreaterThanEqual(minRating, pageable);
+        }
+        if (startYear != null || endYear != null) {
+            return movieRepository.findByYearReleasedBetween(
+                    startYear == null ? Integer.MIN_VALUE : startYear,
+                    endYear == null ? Integer.MAX_VALUE : endYear, pageable);
+        }
+        return movieRepository.findAllBy(pageable);
+    }
+
+    private static int clamp(int size) {
+        return Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+    }
+
+    /** One extra row tells whether there is a next page */
+    private static PageRequest fetch(int limit) {
+        return PageRequest.of(0, limit + 1);
+    }
+
+    /** A cursor from a different ordering does not parse as a number */
+    private static <T> T parse(Supplier<T> value) {
+        try {
+            return value.get();
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Cursor does not belong to this ordering");
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Movie getMovieById(Long id) {
         return movieRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Movie not found with id: " + id));
     }
 
     public Movie createMovie(Movie movie) {
-        return movieRepository.save(movie);
+        Movie saved = movieRepository.save(movie);
+        indexTitle(saved.getId(), saved.getTitle());
+        return saved;
     }
 
     public Movie updateMovie(Long id, Movie movieDetails) {
@@ -35,12 +167,75 @@ public class MovieService {
         movie.setYearReleased(movieDetails.getYearReleased());
         movie.setDescription(movieDetails.getDescription());
         movie.setRating(movieDetails.getRating());
-        return movieRepository.save(movie);
+        Movie saved = movieRepository.save(movie);
+        indexTitle(saved.getId(), saved.getTitle());
+        return saved;
     }
 
     public void deleteMovie(Long id) {
         Movie movie = getMovieById(id);
         movieRepository.delete(movie);
+        AfterCommit.run(() -> titleIndex.remove(Math.toIntExact(id)));
+        recommendationService.movieDeleted(id);
+    }
+
+    /**
+     * "Users who liked this also liked": ranked in memory by the
+     * co-occurrence model, then one findAllById for titles and years
+     */
+    @Transactional(readOnly = true)
+    public List<MovieRecommendationDTO> alsoLiked(Long movieId, int limit) {
+        List<CoOccurrenceModel.Scored> scored = recommendationService.alsoLiked(movieId, Math.max(1, Math.min(limit, 50)));
+        if (scored.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Movie> movies = movieRepository.findAllById(scored.stream().map(s -> (long) s.movieId()).toList())
+                .stream().collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return scored.stream()
+                .filter(s -> movies.containsKey((long) s.movieId()))
+                .map(s -> {
+                    Movie movie = movies.get((long) s.movieId());
+                    return new MovieRecommendationDTO(movie.getId(), movie.getTitle(), movie.getYearReleased(),
+                            s.score(), s.together());
+                })
+                .toList();
+    }
+
+    /**
+     * Ranked title search: the trigram index picks and orders the ids,
+     * then one findAllById loads just those movies
+     */
+    @Transactional(readOnly = true)
+    public List<Movie> searchByTitle(String title, int limit) {
+        List<Long> ids = titleIndex.search(title, limit).stream().map(Integer::longValue).toList();
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Movie> movies = movieRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return ids.stream().map(movies::get).filter(Objects::nonNull).toList();
+    }
+
+    /**
+     * Build the title index from (id, title) pairs only
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadTitleIndex() {
+        List<MovieTitle> titles = movieRepository.findAllTitles();
+        titles.forEach(t -> titleIndex.put(Math.toIntExact(t.getId()), t.getTitle()));
+        log.info("Indexed {} movie titles", titles.size());
+    }
+
+    /**
+     * Add movies written outside this service (bulk ingest) to the title index, after their commit
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void indexImported(Map<Long, String> titles) {
+        titles.forEach((id, title) -> titleIndex.put(Math.toIntExact(id), title));
     }
 
-    public
+    private void indexTitle(Long id, String title) {
+        AfterCommit.run(() -> titleIndex.put(Math.toIntExact(id), title));
+    }
+}
@@ -0,0 +1,208 @@
+package com.cameron.cop3060.service;
+
+import com.cameron.cop3060.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * "Users who liked this also liked" from user_favorite_movies
+ *
+ * Holds a CoOccurrenceModel in memory. At startup the model comes from the
+ * snapshot file ({@code app.recommendations.snapshot-path}) when its
+ * fingerprint still matches the table, and is otherwise rebuilt from the
+ * table with fork/join and snapshotted again. The snapshot is also written
+ * on shutdown.
+ *
+ * UserService and MovieService report favorite changes here; each is applied
+ * once its transaction commits. Changes that arrive while the model is
+ * still loading are queued and replayed (every change is idempotent, so one
+ * already present in the loaded data is harmless).
+ *
+ * @author Cameron Brown
+ */
+@Service
+public class RecommendationService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationService.class);
+
+    private static final int INITIAL_PAIRS = 1 << 16;
+
+    private final UserRepository userRepository;
+    private final Path snapshotPath;
+
+    // Guards the model hand-off at load; updates are queued until it is set
+    private final Lock stateLock = new ReentrantLock();
+    private final Queue<Consumer<CoOccurrenceModel>> pending = new ArrayDeque<>();
+    private volatile CoOccurrenceModel model;
+
+    public RecommendationService(UserRepository userRepository,
+                                 @Value("${app.recommendations.snapshot-path:./data/recommendations.bin}") String snapshotPath) {
+        this.userRepository = userRepository;
+        this.snapshotPath = Path.of(snapshotPath);
+    }
+
+    /**
+     * Top movies favorited by the users who favorited this one; empty until the model is loaded
+     */
+    public List<CoOccurrenceModel.Scored> alsoLiked(Long movieId, int limit) {
+        CoOccurrenceModel current = model;
+        return current == null ? List.of() : current.top(Math.toIntExact(movieId), limit);
+    }
+
+    // ==================== Change feed (applied after commit) ====================
+
+    public void favoritesAdded(Long userId, Collection<Long> movieIds) {
+        int user = Math.toIntExact(userId);
+        int[] movies = toInts(movieIds);
+        afterCommit(m -> Arrays.stream(movies).forEach(movie -> m.add(user, movie)));
+    }
+
+    public void favoritesRemoved(Long userId, Collection<Long> movieIds) {
+        int user = Math.toIntExact(userId);
+        int[] movies = toInts(movieIds);
+        afterCommit(m -> Arrays.stream(movies).forEach(movie -> m.remove(user, movie)));
+    }
+
+    public void userDeleted(Long userId) {
+        int user = Math.toIntExact(userId);
+        afterCommit(m -> m.removeUser(user));
+    }
+
+    public void movieDeleted(Long movieId) {
+        int movie = Math.toIntExact(movieId);
+        afterCommit(m -> m.removeMovie(movie));
+    }
+
+    private void afterCommit(Consumer<CoOccurrenceModel> change) {
+        AfterCommit.run(() -> apply(change));
+    }
+
+    private void apply(Consumer<CoOccurrenceModel> change) {
+        stateLock.lock();
+        try {
+            if (model == null) {
+                pending.add(change);
+                return;
+            }
+        } finally {
+            stateLock.unlock();
+        }
+        change.accept(model);
+    }
+
+    private static int[] toInts(Collection<Long> ids) {
+        return ids.stream().mapToInt(Math::toIntExact).toArray();
+    }
+
+    // ==================== Load / snapshot ====================
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void load() {
+        CoOccurrenceModel.Fingerprint expected = tableFingerprint();
+        CoOccurrenceModel loaded = readSnapshot(expected);
+        if (loaded == null) {
+            long start = System.nanoTime();
+            loaded = rebuild();
+            log.info("Built recommendation model from {} favorites in {} ms",
+                    expected.pairs(), (System.nanoTime() - start) / 1_000_000);
+            writeSnapshot(loaded);
+        }
+
+        stateLock.lock();
+        try {
+            CoOccurrenceModel ready = loaded;
+            pending.forEach(change -> change.accept(ready));
+            pending.clear();
+            model = ready;
+        } finally {
+            stateLock.unlock();
+        }
+        log.info("Recommendation model ready: {} movies, {} users", loaded.movieCount(), loaded.userCount());
+    }
+
+    @PreDestroy
+    public void saveSnapshot() {
+        CoOccurrenceModel current = model;
+        if (current != null) {
+            writeSnapshot(current);
+        }
+    }
+
+    private CoOccurrenceModel.Fingerprint tableFingerprint() {
+        Object[] row = userRepository.favoritePairsFingerprint().get(0);
+        return new CoOccurrenceModel.Fingerprint(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+    }
+
+    private CoOccurrenceModel rebuild() {
+        int[] users = new int[INITIAL_PAIRS];
+        int[] movies = new int[INITIAL_PAIRS];
+        int count = 0;
+        try (Stream<Object[]> pairs = userRepository.streamFavoritePairs()) {
+            for (Object[] pair : (Iterable<Object[]>) pairs::iterator) {
+                if (count == users.length) {
+                    users = Arrays.copyOf(users, count * 2);
+                    movies = Arrays.copyOf(movies, count * 2);
+                }
+                users[count] = ((Number) pair[0]).intValue();
+                movies[count] = ((Number) pair[1]).intValue();
+                count++;
+            }
+        }
+        return CoOccurrenceModel.build(users, movies, count, ForkJoinPool.commonPool());
+    }
+
+    /** @return the snapshot model, or null if it is missing, unreadable or out of date */
+    private CoOccurrenceModel readSnapshot(CoOccurrenceModel.Fingerprint expected) {
+        if (!Files.isRegularFile(snapshotPath)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(snapshotPath), 1 << 16))) {
+            CoOccurrenceModel snapshot = CoOccurrenceModel.read(in);
+            if (!snapshot.fingerprint().equals(expected)) {
+                log.info("Recommendation snapshot is stale ({} vs table {}); rebuilding", snapshot.fingerprint(), expected);
+                return null;
+            }
+            log.info("Loaded recommendation model from {}", snapshotPath);
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not read recommendation snapshot {}: {}; rebuilding", snapshotPath, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(CoOccurrenceModel snapshot) {
+        try {
+            Path dir = snapshotPath.toAbsolutePath().getParent();
+            Files.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, "recommendations", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+                snapshot.write(out);
+            }
+            Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Could not write recommendation snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+}
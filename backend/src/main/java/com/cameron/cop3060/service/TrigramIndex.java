@@ -0,0 +1,227 @@
+package com.cameron.cop3060.service;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram inverted index for ranked "title contains" search
+ * 
+ * Text is lowercased and padded with a space on each side, then split into
+ * overlapping 3-character grams. Each gram (packed into a long) maps to a
+ * sorted int[] posting list of document ids. A search k-way merges the
+ * posting lists of the query's grams to count shared grams per document,
+ * so no per-document objects are allocated, then ranks:
+ *   exact title > title prefix > substring > share of query grams matched,
+ * shorter titles first within a tier. Near misses (typos) still match when
+ * at least MIN_SIMILARITY of the query grams are present.
+ * 
+ * Thread-safe; reads run concurrently, writes are exclusive.
+ * 
+ * @author Cameron Brown
+ */
+public class TrigramIndex {
+
+    static final double MIN_SIMILARITY = 0.5;
+    private static final int GRAM = 3;
+    private static final int FUZZY = 3; // rank tier of hits that are not substrings
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private final Map<Integer, String> texts = new HashMap<>();
+
+    /** Growable sorted int array */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        void remove(int id) {
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                System.arraycopy(ids, at + 1, ids, at, size - at - 1);
+                size--;
+            }
+        }
+    }
+
+    /** A ranked hit; lower tier ranks first */
+    private record Hit(int id, int tier, double similarity, int length) {}
+
+    /**
+     * Index (or re-index) one document
+     */
+    public void put(int id, String text) {
+        String normalized = normalize(text);
+        lock.writeLock().lock();
+        try {
+            String previous = texts.put(id, normalized);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+            for (long gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new Postings()).add(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            String previous = texts.remove(id);
+            if (previous != null) {
+                unindex(id, previous);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best matching document ids, best first
+     */
+    public List<Integer> search(String query, int limit) {
+        String needle = normalize(query).trim();
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            List<Hit> hits = needle.length() < GRAM ? scan(needle) : merge(needle);
+            return hits.stream()
+                    .sorted(Comparator.comparingInt(Hit::tier)
+                            .thenComparing(Comparator.comparingDouble(Hit::similarity).reversed())
+                            .thenComparingInt(Hit::length)
+                            .thenComparingInt(Hit::id))
+                    .limit(limit)
+                    .map(Hit::id)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return texts.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Count shared grams per document by merging the sorted posting lists
+     */
+    private List<Hit> merge(String needle) {
+        long[] queryGrams = grams(" " + needle + " ");
+        List<Postings> lists = new ArrayList<>(queryGrams.length);
+        for (long gram : queryGrams) {
+            Postings p = postings.get(gram);
+            if (p != null && p.size > 0) {
+                lists.add(p);
+            }
+        }
+        // Every true substring shares all the unpadded grams, so never demand more than those
+        int inner = needle.length() - GRAM + 1;
+        int required = Math.min(inner, (int) Math.ceil(queryGrams.length * MIN_SIMILARITY));
+        if (lists.size() < required) {
+            return List.of();
+        }
+
+        int[] pos = new int[lists.size()];
+        List<Hit> hits = new ArrayList<>();
+        while (true) {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < pos.length; i++) {
+                Postings p = lists.get(i);
+                if (pos[i] < p.size && p.ids[pos[i]] < min) {
+                    min = p.ids[pos[i]];
+                }
+            }
+            if (min == Integer.MAX_VALUE) {
+                return hits;
+            }
+            int shared = 0;
+            for (int i = 0; i < pos.length; i++) {
+                Postings p = lists.get(i);
+                if (pos[i] < p.size && p.ids[pos[i]] == min) {
+                    shared++;
+                    pos[i]++;
+                }
+            }
+            if (shared >= required) {
+                Hit hit = hit(min, needle, (double) shared / queryGrams.length);
+                if (hit.tier() < FUZZY || hit.similarity() >= MIN_SIMILARITY) {
+                    hits.add(hit);
+                }
+            }
+        }
+    }
+
+    /** Needles shorter than a gram: check the indexed texts directly (still no DB) */
+    private List<Hit> scan(String needle) {
+        List<Hit> hits = new ArrayList<>();
+        texts.forEach((id, text) -> {
+            if (text.contains(needle)) {
+                hits.add(hit(id, needle, 1.0));
+            }
+        });
+        return hits;
+    }
+
+    private Hit hit(int id, String needle, double similarity) {
+        String text = texts.get(id).trim();
+        int tier = text.equals(needle) ? 0 : text.startsWith(needle) ? 1 : text.contains(needle) ? 2 : FUZZY;
+        return new Hit(id, tier, similarity, text.length());
+    }
+
+    private void unindex(int id, String text) {
+        for (long gram : grams(text)) {
+            Postings p = postings.get(gram);
+            if (p != null) {
+                p.remove(id);
+                if (p.size == 0) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    /** Lowercase, single-spaced, padded so grams also mark word starts and ends */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return " " + text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT) + " ";
+    }
+
+    /** Distinct grams of already normalized text, each packed as three 16-bit chars */
+    static long[] grams(String text) {
+        if (text.length() < GRAM) {
+            return new long[0];
+        }
+        long[] grams = new long[text.length() - GRAM + 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+}
@@ -1,21 +1,46 @@
 package com.cameron.cop3060.service;
 
+import com.cameron.cop3060.dto.UserSummaryDTO;
 import com.cameron.cop3060.entity.Hobby;
-import com.cameron.cop3060.entity.Movie;
 import com.cameron.cop3060.entity.User;
 import com.cameron.cop3060.exception.ResourceNotFoundException;
 import com.cameron.cop3060.repository.HobbyRepository;
 import com.cameron.cop3060.repository.MovieRepository;
+import com.cameron.cop3060.repository.UserHobbyRow;
+import com.cameron.cop3060.repository.UserMovieRow;
 import com.cameron.cop3060.repository.UserRepository;
+import com.cameron.cop3060.repository.UserRow;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class UserService {
 
+    private static final int MAX_PAGE_SIZE = 200;
+    // Keeps the IN (...) list well under every driver's bind parameter limit
+    private static final int MAX_FAVORITES_BATCH = 1000;
+    private static final Set<String> SORTABLE = Set.of("id", "firstName", "lastName", "email", "createdAt");
+
     @Autowired
     private UserRepository userRepository;
 
@@ -25,11 +50,70 @@ public class UserService {
     @Autowired
     private HobbyRepository hobbyRepository;
 
+    @Autowired
+    private RecommendationService recommendationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     // CRUD Operations
+    @Transactional(readOnly = true)
     public List<User> getAllUsers() {
         return userRepository.findAll();
     }
 
+    /**
+     * Paged user listing without N+1 queries
+     * 
+     * Always four statements per page, whatever the page size: the page of
+     * scalar rows, its count, every hobby of those users in one IN (...)
+     * query, and every favorite movie in another. Children are grouped by
+     * user id in memory.
+     * 
+     * @param sort e.g. "lastName" or "createdAt,desc"
+     */
+    @Transactional(readOnly = true)
+    public Page<UserSummaryDTO> listUsers(int page, int size, String sort) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE), parseSort(sort));
+        Page<UserRow> rows = userRepository.findUserRows(pageable);
+        if (rows.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, rows.getTotalElements());
+        }
+
+        List<Long> userIds = rows.getContent().stream().map(UserRow::getId).toList();
+        Map<Long, List<UserSummaryDTO.HobbyItem>> hobbies = hobbyRepository.findRowsByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(UserHobbyRow::getUserId, Collectors.mapping(
+                        h -> new UserSummaryDTO.HobbyItem(h.getId(), h.getName(),
+                                h.getCategory() == null ? null : h.getCategory().name()),
+                        Collectors.toList())));
+        Map<Long, List<UserSummaryDTO.MovieItem>> movies = userRepository.findFavoriteMovieRows(userIds).stream()
+                .collect(Collectors.groupingBy(UserMovieRow::getUserId, Collectors.mapping(
+                        m -> new UserSummaryDTO.MovieItem(m.getId(), m.getTitle(), m.getYearReleased()),
+                        Collectors.toList())));
+
+        return rows.map(u -> new UserSummaryDTO(u.getId(), u.getFirstName(), u.getLastName(), u.getEmail(),
+                u.getIsSubscribed(), u.getCreatedAt(),
+                hobbies.getOrDefault(u.getId(), List.of()),
+                movies.getOrDefault(u.getId(), List.of())));
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        String[] parts = sort.split(",");
+        String property = parts[0].trim();
+        if (!SORTABLE.contains(property)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Cannot sort users by '" + property + "'; use one of " + SORTABLE);
+        }
+        Sort.Direction direction = parts.length > 1 && "desc".equalsIgnoreCase(parts[1].trim())
+                ? Sort.Direction.DESC : Sort.Direction.ASC;
+        // id breaks ties so pages never overlap
+        return Sort.by(direction, property).and(Sort.by("id"));
+    }
+
+    @Transactional(readOnly = true)
     public User getUserById(Long id) {
         return userRepository.findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
@@ -56,6 +140,7 @@ public class UserService {
     public void deleteUser(Long id) {
         User user = getUserById(id);
         userRepository.delete(user);
+        recommendationService.userDeleted(id);
     }
 
     // Relationship Operations
@@ -65,21 +150,125 @@ public class UserService {
         return userRepository.save(user);
     }
 
-    public User addFavoriteMovie(Long userId, Long movieId) {
-        User user = userRepository.findByIdWithMovies(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        Movie movie = movieRepository.findById(movieId)
-            .orElseThrow(() -> new ResourceNotFoundException("Movie not found"));
-        user.addFavoriteMovie(movie);
-        return userRepository.save(user);
+    /*
+     * Favorites go straight to user_favorite_movies: one statement per call,
+     * whatever the size of the user's list. Existence checks are primary key
+     * lookups; no User or Movie entity is loaded.
+     *
+     * INSERT ... WHERE NOT EXISTS is not atomic: two concurrent adds of the
+     * same pair can both pass the check, and the later one fails on the
+     * primary key. That transaction is rollback-only by then, so adds run in
+     * their own transaction and are retried once in a fresh one, where the
+     * pair now counts as already present.
+     */
+
+    /**
+     * Add one favorite
+     *
+     * @return true if added, false if it was already a favorite
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public boolean addFavoriteMovie(Long userId, Long movieId) {
+        return retryOnDuplicate(() -> {
+            requireUser(userId);
+            if (userRepository.insertFavoriteMovies(userId, List.of(movieId)) == 1) {
+                recommendationService.favoritesAdded(userId, List.of(movieId));
+                return true;
+            }
+            if (!movieRepository.existsById(movieId)) {
+                throw new ResourceNotFoundException("Movie not found with id: " + movieId);
+            }
+            return false;
+        });
     }
 
-    public User removeFavoriteMovie(Long userId, Long movieId) {
-        User user = userRepository.findByIdWithMovies(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        Movie movie = movieRepository.findById(movieId)
-            .orElseThrow(() -> new ResourceNotFoundException("Movie not found"));
-        user.removeFavoriteMovie(movie);
-        return userRepository.save(user);
+    /**
+     * Remove one favorite
+     *
+     * @return true if removed, false if it was not a favorite
+     */
+    public boolean removeFavoriteMovie(Long userId, Long movieId) {
+        requireUser(userId);
+        if (userRepository.deleteFavoriteMovies(userId, List.of(movieId)) == 1) {
+            recommendationService.favoritesRemoved(userId, List.of(movieId));
+            return true;
+        }
+        return false;
+    }
+
+    @Transactional(readOnly = true)
+    public boolean isFavoriteMovie(Long userId, Long movieId) {
+        return userRepository.countFavoriteMovie(userId, movieId) > 0;
+    }
+
+    /**
+     * Add many favorites in one statement; ids already present or without a movie are skipped
+     *
+     * @return how many were added
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int addFavoriteMovies(Long userId, Collection<Long> movieIds) {
+        Set<Long> ids = favoriteBatch(movieIds);
+        return retryOnDuplicate(() -> {
+            requireUser(userId);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            int added = userRepository.insertFavoriteMovies(userId, ids);
+            if (added > 0) {
+                // Only ids that really are favorites now (unknown movie ids were skipped)
+                recommendationService.favoritesAdded(userId, userRepository.findFavoriteMovieIdsIn(userId, ids));
+            }
+            return added;
+        });
+    }
+
+    /**
+     * Remove many favorites in one statement
+     *
+     * @return how many were removed
+     */
+    public int removeFavoriteMovies(Long userId, Collection<Long> movieIds) {
+        Set<Long> ids = favoriteBatch(movieIds);
+        requireUser(userId);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int removed = userRepository.deleteFavoriteMovies(userId, ids);
+        if (removed > 0) {
+            recommendationService.favoritesRemoved(userId, ids);
+        }
+        return removed;
+    }
+
+    /**
+     * Run a favorites insert in a new transaction, once more if a concurrent
+     * insert of the same pair won the race (see above)
+     */
+    private <T> T retryOnDuplicate(Supplier<T> insert) {
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        try {
+            return tx.execute(status -> insert.get());
+        } catch (DataIntegrityViolationException e) {
+            return tx.execute(status -> insert.get());
+        }
+    }
+
+    private void requireUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new ResourceNotFoundException("User not found with id: " + userId);
+        }
+    }
+
+    private static Set<Long> favoriteBatch(Collection<Long> movieIds) {
+        if (movieIds == null) {
+            return Set.of();
+        }
+        Set<Long> ids = movieIds.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (ids.size() > MAX_FAVORITES_BATCH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "At most " + MAX_FAVORITES_BATCH + " movie ids per call");
+        }
+        return ids;
     }
 }
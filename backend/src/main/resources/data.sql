@@ -12,61 +12,66 @@
 -- DELETE FROM movies;
 -- DELETE FROM users;
 
+-- ==========================================
+-- Ids are explicit: users, movies and hobbies draw new ids from pooled
+-- sequences starting at 1000, so seed rows stay below that
+-- ==========================================
+
 -- ==========================================
 -- INSERT USERS
 -- ==========================================
-INSERT INTO users (first_name, last_name, email, password, is_subscribed, browser, likes_site, created_at, updated_at)
+INSERT INTO users (id, first_name, last_name, email, password, is_subscribed, browser, likes_site, created_at, updated_at)
 VALUES 
-    ('Cameron', 'Brown', 'cameron.brown@famu.edu', 'password123', true, 'chrome', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-    ('John', 'Doe', 'john.doe@example.com', 'pass456', true, 'firefox', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-    ('Jane', 'Smith', 'jane.smith@example.com', 'pass789', false, 'safari', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-    ('Alice', 'Johnson', 'alice.johnson@example.com', 'alicepass', true, 'edge', false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
-    ('Bob', 'Williams', 'bob.williams@example.com', 'bobpass', false, 'chrome', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
+    (1, 'Cameron', 'Brown', 'cameron.brown@famu.edu', 'password123', true, 'chrome', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    (2, 'John', 'Doe', 'john.doe@example.com', 'pass456', true, 'firefox', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    (3, 'Jane', 'Smith', 'jane.smith@example.com', 'pass789', false, 'safari', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    (4, 'Alice', 'Johnson', 'alice.johnson@example.com', 'alicepass', true, 'edge', false, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP),
+    (5, 'Bob', 'Williams', 'bob.williams@example.com', 'bobpass', false, 'chrome', true, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP);
 
 -- ==========================================
 -- INSERT MOVIES (Cameron's Favorites)
 -- ==========================================
-INSERT INTO movies (title, genre, year_released, description, rating, created_at)
+INSERT INTO movies (id, title, genre, year_released, description, rating, created_at)
 VALUES 
-    ('Inception', 'Sci-Fi', 2010, 'A thief who steals corporate secrets through dream-sharing technology is given the inverse task of planting an idea into the mind of a C.E.O.', 8.8, CURRENT_TIMESTAMP),
-    ('The Dark Knight', 'Action', 2008, 'When the menace known as the Joker wreaks havoc and chaos on the people of Gotham, Batman must accept one of the greatest psychological and physical tests of his ability to fight injustice.', 9.0, CURRENT_TIMESTAMP),
-    ('Spirited Away', 'Animation', 2001, 'During her family''s move to the suburbs, a sullen 10-year-old girl wanders into a world ruled by gods, witches, and spirits.', 8.6, CURRENT_TIMESTAMP),
-    ('The Matrix', 'Sci-Fi', 1999, 'A computer hacker learns about the true nature of reality and his role in the war against its controllers.', 8.7, CURRENT_TIMESTAMP),
-    ('Interstellar', 'Sci-Fi', 2014, 'A team of explorers travel through a wormhole in space in an attempt to ensure humanity''s survival.', 8.6, CURRENT_TIMESTAMP),
-    ('Pulp Fiction', 'Crime', 1994, 'The lives of two mob hitmen, a boxer, a gangster and his wife intertwine in four tales of violence and redemption.', 8.9, CURRENT_TIMESTAMP),
-    ('The Shawshank Redemption', 'Drama', 1994, 'Two imprisoned men bond over a number of years, finding solace and eventual redemption through acts of common decency.', 9.3, CURRENT_TIMESTAMP),
-    ('Avengers: Endgame', 'Action', 2019, 'After the devastating events of Infinity War, the Avengers assemble once more to reverse Thanos'' actions and restore balance to the universe.', 8.4, CURRENT_TIMESTAMP),
-    ('Your Name', 'Animation', 2016, 'Two strangers find themselves linked in a bizarre way. When a connection forms, will distance be the only thing to keep them apart?', 8.4, CURRENT_TIMESTAMP),
-    ('The Lord of the Rings: The Return of the King', 'Fantasy', 2003, 'Gandalf and Aragorn lead the World of Men against Sauron''s army to draw his gaze from Frodo and Sam as they approach Mount Doom with the One Ring.', 9.0, CURRENT_TIMESTAMP);
+    (1, 'Inception', 'Sci-Fi', 2010, 'A thief who steals corporate secrets through dream-sharing technology is given the inverse task of planting an idea into the mind of a C.E.O.', 8.8, CURRENT_TIMESTAMP),
+    (2, 'The Dark Knight', 'Action', 2008, 'When the menace known as the Joker wreaks havoc and chaos on the people of Gotham, Batman must accept one of the greatest psychological and physical tests of his ability to fight injustice.', 9.0, CURRENT_TIMESTAMP),
+    (3, 'Spirited Away', 'Animation', 2001, 'During her family''s move to the suburbs, a sullen 10-year-old girl wanders into a world ruled by gods, witches, and spirits.', 8.6, CURRENT_TIMESTAMP),
+    (4, 'The Matrix', 'Sci-Fi', 1999, 'A computer hacker learns about the true nature of reality and his role in the war against its controllers.', 8.7, CURRENT_TIMESTAMP),
+    (5, 'Interstellar', 'Sci-Fi', 2014, 'A team of explorers travel through a wormhole in space in an attempt to ensure humanity''s survival.', 8.6, CURRENT_TIMESTAMP),
+    (6, 'Pulp Fiction', 'Crime', 1994, 'The lives of two mob hitmen, a boxer, a gangster and his wife intertwine in four tales of violence and redemption.', 8.9, CURRENT_TIMESTAMP),
+    (7, 'The Shawshank Redemption', 'Drama', 1994, 'Two imprisoned men bond over a number of years, finding solace and eventual redemption through acts of common decency.', 9.3, CURRENT_TIMESTAMP),
+    (8, 'Avengers: Endgame', 'Action', 2019, 'After the devastating events of Infinity War, the Avengers assemble once more to reverse Thanos'' actions and restore balance to the universe.', 8.4, CURRENT_TIMESTAMP),
+    (9, 'Your Name', 'Animation', 2016, 'Two strangers find themselves linked in a bizarre way. When a connection forms, will distance be the only thing to keep them apart?', 8.4, CURRENT_TIMESTAMP),
+    (10, 'The Lord of the Rings: The Return of the King', 'Fantasy', 2003, 'Gandalf and Aragorn lead the World of Men against Sauron''s army to draw his gaze from Frodo and Sam as they approach Mount Doom with the One Ring.', 9.0, CURRENT_TIMESTAMP);
 
 -- ==========================================
 -- INSERT HOBBIES (Cameron's Hobbies)
 -- ==========================================
-INSERT INTO hobbies (name, description, category, user_id, created_at)
+INSERT INTO hobbies (id, name, description, category, user_id, created_at)
 VALUES 
     -- Cameron's Hobbies (user_id = 1)
-    ('Gaming', 'Playing video games, especially RPGs and action-adventure games', 'TECHNOLOGY', 1, CURRENT_TIMESTAMP),
-    ('Camping', 'Outdoor camping and hiking in nature', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
-    ('Coding', 'Programming and software development projects', 'TECHNOLOGY', 1, CURRENT_TIMESTAMP),
-    ('Reading', 'Reading sci-fi and fantasy novels', 'INDOOR', 1, CURRENT_TIMESTAMP),
-    ('Hiking', 'Exploring trails and mountains', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
-    ('Traveling', 'Visiting new places and experiencing different cultures', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
+    (1, 'Gaming', 'Playing video games, especially RPGs and action-adventure games', 'TECHNOLOGY', 1, CURRENT_TIMESTAMP),
+    (2, 'Camping', 'Outdoor camping and hiking in nature', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
+    (3, 'Coding', 'Programming and software development projects', 'TECHNOLOGY', 1, CURRENT_TIMESTAMP),
+    (4, 'Reading', 'Reading sci-fi and fantasy novels', 'INDOOR', 1, CURRENT_TIMESTAMP),
+    (5, 'Hiking', 'Exploring trails and mountains', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
+    (6, 'Traveling', 'Visiting new places and experiencing different cultures', 'OUTDOOR', 1, CURRENT_TIMESTAMP),
     
     -- John's Hobbies (user_id = 2)
-    ('Photography', 'Capturing moments through the lens', 'ARTS', 2, CURRENT_TIMESTAMP),
-    ('Cooking', 'Experimenting with new recipes', 'INDOOR', 2, CURRENT_TIMESTAMP),
+    (7, 'Photography', 'Capturing moments through the lens', 'ARTS', 2, CURRENT_TIMESTAMP),
+    (8, 'Cooking', 'Experimenting with new recipes', 'INDOOR', 2, CURRENT_TIMESTAMP),
     
     -- Jane's Hobbies (user_id = 3)
-    ('Painting', 'Creating art with watercolors and acrylics', 'ARTS', 3, CURRENT_TIMESTAMP),
-    ('Yoga', 'Practicing mindfulness and flexibility', 'SPORTS', 3, CURRENT_TIMESTAMP),
+    (9, 'Painting', 'Creating art with watercolors and acrylics', 'ARTS', 3, CURRENT_TIMESTAMP),
+    (10, 'Yoga', 'Practicing mindfulness and flexibility', 'SPORTS', 3, CURRENT_TIMESTAMP),
     
     -- Alice's Hobbies (user_id = 4)
-    ('Running', 'Morning jogs and marathon training', 'SPORTS', 4, CURRENT_TIMESTAMP),
-    ('Gardening', 'Growing vegetables and flowers', 'OUTDOOR', 4, CURRENT_TIMESTAMP),
+    (11, 'Running', 'Morning jogs and marathon training', 'SPORTS', 4, CURRENT_TIMESTAMP),
+    (12, 'Gardening', 'Growing vegetables and flowers', 'OUTDOOR', 4, CURRENT_TIMESTAMP),
     
     -- Bob's Hobbies (user_id = 5)
-    ('Music', 'Playing guitar and piano', 'ARTS', 5, CURRENT_TIMESTAMP),
-    ('Chess', 'Strategic board game competitions', 'INDOOR', 5, CURRENT_TIMESTAMP);
+    (13, 'Music', 'Playing guitar and piano', 'ARTS', 5, CURRENT_TIMESTAMP),
+    (14, 'Chess', 'Strategic board game competitions', 'INDOOR', 5, CURRENT_TIMESTAMP);
 
 -- ==========================================
 -- INSERT CONTACTS (Form Submissions)
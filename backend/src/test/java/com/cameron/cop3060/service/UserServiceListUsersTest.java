@@ -0,0 +1,91 @@
+package com.cameron.cop3060.service;
+
+import com.cameron.cop3060.dto.UserSummaryDTO;
+import com.cameron.cop3060.entity.Hobby;
+import com.cameron.cop3060.entity.Movie;
+import com.cameron.cop3060.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UserService.listUsers runs the same four statements whatever the page size
+ * 
+ * Counted with Hibernate statistics (prepared statements) on an embedded
+ * database seeded with more users than the largest page, so every page
+ * needs its count query.
+ * 
+ * @author Cameron Brown
+ */
+@DataJpaTest(properties = {
+        "spring.sql.init.mode=never",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(UserService.class)
+class UserServiceListUsersTest {
+
+    private static final int USERS = 120;
+    private static final int MOVIES = 5;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @MockBean
+    private RecommendationService recommendationService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void seed() {
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < MOVIES; i++) {
+            movies.add(entityManager.persist(new Movie("Movie " + i, "Drama", 2000 + i)));
+        }
+        for (int i = 0; i < USERS; i++) {
+            User user = new User("First" + i, "Last" + i, "user" + i + "@example.com", "secret" + i);
+            user.addHobby(new Hobby("Hiking " + i, null, Hobby.Category.OUTDOOR));
+            user.addHobby(new Hobby("Chess " + i, null, Hobby.Category.INDOOR));
+            user.addFavoriteMovie(movies.get(i % MOVIES));
+            user.addFavoriteMovie(movies.get((i + 1) % MOVIES));
+            entityManager.persist(user);
+        }
+        // Nothing left to flush or load lazily once the counting starts
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 50})
+    void listUsersRunsFourStatementsWhateverThePageSize(int size) {
+        Page<UserSummaryDTO> page = userService.listUsers(0, size, "lastName");
+
+        assertThat(page.getContent()).hasSize(size);
+        assertThat(page.getTotalElements()).isEqualTo(USERS);
+        assertThat(page.getContent()).allSatisfy(user -> {
+            assertThat(user.hobbies()).hasSize(2);
+            assertThat(user.favoriteMovies()).hasSize(2);
+        });
+        // Page rows, count, hobbies IN (...), favorite movies IN (...)
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+    }
+}
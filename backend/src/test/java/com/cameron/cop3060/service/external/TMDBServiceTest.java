@@ -0,0 +1,214 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.dto.external.TMDBSearchResponseDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.exception.RateLimitExceededException;
+import com.cameron.cop3060.exception.ResourceNotFoundException;
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import com.cameron.cop3060.repository.ExternalMoviePayloadRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Refill;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * TMDBService against a local stub HTTP server (com.sun.net.httpserver)
+ * 
+ * The cache tables are Mockito mocks behind a real ExternalMovieCacheWriter,
+ * so the tests see exactly which rows each batch looks up and saves.
+ * 
+ * @author Cameron Brown
+ */
+class TMDBServiceTest {
+
+    private static final String API_KEY = "test-key";
+
+    private static final String FIGHT_CLUB = """
+            {"id":550,"title":"Fight Club","original_title":"Fight Club",
+             "overview":"An insomniac office worker...","release_date":"1999-10-15",
+             "vote_average":8.4,"vote_count":26280,"popularity":61.4,"adult":false,
+             "original_language":"en","genres":[{"id":18,"name":"Drama"},{"id":53,"name":"Thriller"}],
+             "runtime":139,"budget":63000000,"revenue":100853753,"tagline":"Mischief. Mayhem. Soap.",
+             "status":"Released","unknown_field":"ignored",
+             "credits":{"cast":[{"id":819,"name":"Edward Norton","character":"Narrator","order":0}],
+                        "crew":[{"id":7467,"name":"David Fincher","job":"Director","department":"Directing"}]}}
+            """;
+
+    private static final String SEARCH = """
+            {"page":1,"total_pages":1,"total_results":3,"results":[
+             {"id":603,"title":"The Matrix","release_date":"1999-03-30","genre_ids":[28,878],"vote_average":8.2},
+             {"id":604,"title":"The Matrix Reloaded","release_date":"2003-05-15","genre_ids":[28,878],"vote_average":7.0},
+             {"id":605,"title":"The Matrix Revolutions","release_date":"2003-11-05","genre_ids":[28,878],"vote_average":6.7}]}
+            """;
+
+    private HttpServer server;
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+
+    private ExternalMovieCacheRepository repository;
+    private ExternalMoviePayloadRepository payloadRepository;
+    private ExternalMovieCacheWriter writer;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+
+        repository = mock(ExternalMovieCacheRepository.class);
+        payloadRepository = mock(ExternalMoviePayloadRepository.class);
+        // Assign ids the way the database would
+        AtomicInteger nextId = new AtomicInteger();
+        when(repository.saveAll(any())).thenAnswer(call -> {
+            List<ExternalMovieCache> saved = new ArrayList<>();
+            for (ExternalMovieCache row : call.<Iterable<ExternalMovieCache>>getArgument(0)) {
+                if (row.getId() == null) {
+                    row.setId((long) nextId.incrementAndGet());
+                }
+                saved.add(row);
+            }
+            return saved;
+        });
+        writer = new ExternalMovieCacheWriter(repository, payloadRepository, mock(PlatformTransactionManager.class),
+                mock(ApplicationEventPublisher.class), 50, 100, 24);
+    }
+
+    @AfterEach
+    void stopServer() {
+        writer.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    void decodesMovieDetailsWithCredits() {
+        TMDBMovieDTO movie = service(10).getMovie(550).block(Duration.ofSeconds(5));
+
+        assertThat(movie.getId()).isEqualTo(550L);
+        assertThat(movie.getTitle()).isEqualTo("Fight Club");
+        assertThat(movie.getReleaseDate()).isEqualTo("1999-10-15");
+        assertThat(movie.getRuntime()).isEqualTo(139);
+        assertThat(movie.getGenres()).extracting(TMDBMovieDTO.GenreDTO::getName).containsExactly("Drama", "Thriller");
+        assertThat(movie.getCredits().getCrew()).extracting(TMDBMovieDTO.CrewDTO::getName).containsExactly("David Fincher");
+        assertThat(hits.get("/movie/550")).hasValue(1);
+    }
+
+    @Test
+    void missingMovieIsResourceNotFound() {
+        assertThatThrownBy(() -> service(10).getMovie(999).block(Duration.ofSeconds(5)))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessageContaining("999");
+        verify(repository, never()).saveAll(any());
+    }
+
+    @Test
+    void exhaustedBucketFailsWithRateLimitExceeded() {
+        TMDBService service = service(1);
+        service.getMovie(550).block(Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> service.getMovie(551).block(Duration.ofSeconds(5)))
+                .isInstanceOf(RateLimitExceededException.class);
+        // The refused call never reached TMDB
+        assertThat(hits).doesNotContainKey("/movie/551");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchResultsAreUpsertedInOneBatch() {
+        TMDBSearchResponseDTO response = service(10).searchMovies("  The   MATRIX ", 1).block(Duration.ofSeconds(5));
+
+        assertThat(response.getResults()).hasSize(3);
+        assertThat(hits.get("/search/movie")).hasValue(1);
+
+        // One lookup and one saveAll for the whole page
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(repository, times(1)).findByTmdbIdIn(ids.capture());
+        assertThat(ids.getValue()).containsExactlyInAnyOrder(603L, 604L, 605L);
+
+        ArgumentCaptor<Iterable<ExternalMovieCache>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository, times(1)).saveAll(rows.capture());
+        assertThat(rows.getValue())
+                .extracting(ExternalMovieCache::getTmdbId, ExternalMovieCache::getReleaseYear, ExternalMovieCache::getGenreIds)
+                .containsExactlyInAnyOrder(
+                        tuple(603L, 1999, "28,878"),
+                        tuple(604L, 2003, "28,878"),
+                        tuple(605L, 2003, "28,878"));
+        // Summaries carry no raw payload
+        verifyNoInteractions(payloadRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void detailsAreSavedWithDirectorAndRawPayload() {
+        service(10).getMovie(550).block(Duration.ofSeconds(5));
+
+        ArgumentCaptor<Iterable<ExternalMovieCache>> rows = ArgumentCaptor.forClass(Iterable.class);
+        verify(repository).saveAll(rows.capture());
+        ExternalMovieCache row = rows.getValue().iterator().next();
+        assertThat(row.getDirector()).isEqualTo("David Fincher");
+        assertThat(row.getIsDetailed()).isTrue();
+        assertThat(row.getFetchCount()).isZero();
+        verify(payloadRepository).saveAll(any());
+    }
+
+    private TMDBService service(long tokens) {
+        Bucket bucket = Bucket.builder()
+                .addLimit(Bandwidth.classic(tokens, Refill.intervally(tokens, Duration.ofHours(1))))
+                .build();
+        WebClient webClient = WebClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .build();
+        return new TMDBService(webClient, bucket, writer, new ObjectMapper(), API_KEY, 2000, 50, 5000);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+        // Decoded, so the normalized search reads "the matrix"
+        String query = exchange.getRequestURI().getQuery();
+        if (query == null || !query.contains("api_key=" + API_KEY)) {
+            respond(exchange, 401, "{\"status_message\":\"Invalid API key\"}");
+        } else if (path.equals("/movie/550") || path.equals("/movie/551")) {
+            respond(exchange, 200, FIGHT_CLUB);
+        } else if (path.equals("/search/movie") && query.contains("query=the matrix")) {
+            respond(exchange, 200, SEARCH);
+        } else {
+            respond(exchange, 404, "{\"status_message\":\"The resource you requested could not be found.\"}");
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.cop_3060.benchmark;
+
+import com.cop_3060.dto.CategoryDto;
+import com.cop_3060.dto.CreateCategoryRequest;
+import com.cop_3060.exception.ConflictException;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of CategoryService.delete, including the "in use" reference check,
+ * as the number of resources grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CategoryDeleteBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int resources;
+
+    private Fixtures fixtures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = Fixtures.withResources(resources, 42);
+    }
+
+    /** Create and delete an unused category (the delete succeeds). */
+    @Benchmark
+    public CategoryDto deleteUnreferenced() {
+        CategoryDto created = fixtures.categories.create(new CreateCategoryRequest("Scratch", "Unused"));
+        fixtures.categories.delete(created.id());
+        return created;
+    }
+
+    /** Try to delete a category that resources still point at (the delete is rejected). */
+    @Benchmark
+    public boolean deleteReferenced() {
+        try {
+            fixtures.categories.delete(1L);
+            return true;
+        } catch (ConflictException expected) {
+            return false;
+        }
+    }
+}
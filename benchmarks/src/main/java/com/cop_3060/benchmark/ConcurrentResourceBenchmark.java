@@ -0,0 +1,90 @@
+package com.cop_3060.benchmark;
+
+import com.cop_3060.dto.ResourceDto;
+import com.cop_3060.dto.UpdateResourceRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mixed readers and writers against one shared ResourceService.
+ * Each group is one read/write mix; use -tg to try other thread splits,
+ * e.g. {@code -tg 7,1} for readHeavy with 8 threads.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Group)
+public class ConcurrentResourceBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int entries;
+
+    private Fixtures fixtures;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = Fixtures.withResources(entries, 42);
+    }
+
+    private Map<String, Object> read() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return random.nextBoolean()
+                ? fixtures.resources.findAll(0, 10, null, "Category " + random.nextInt(Fixtures.CATEGORIES), null)
+                : fixtures.resources.findAll(0, 10, null, null, "lap");
+    }
+
+    private ResourceDto write() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long id = 1 + random.nextInt(entries);
+        return fixtures.resources.update(id, new UpdateResourceRequest(
+                "resource " + random.nextInt(1_000_000), "Updated resource",
+                1L + random.nextInt(Fixtures.LOCATIONS), 1L + random.nextInt(Fixtures.CATEGORIES)));
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(3)
+    public Map<String, Object> readHeavyReader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public ResourceDto readHeavyWriter() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(2)
+    public Map<String, Object> balancedReader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(2)
+    public ResourceDto balancedWriter() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(1)
+    public Map<String, Object> writeHeavyReader() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("writeHeavy")
+    @GroupThreads(3)
+    public ResourceDto writeHeavyWriter() {
+        return write();
+    }
+}
@@ -0,0 +1,156 @@
+package com.cop_3060.benchmark;
+
+import com.cameron.cop3060.config.HttpPoolMetrics;
+import com.cameron.cop3060.config.MeteredConnectionProvider;
+import com.cameron.cop3060.config.MeteredHttpClients;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * External API calls through each HTTP client setup, against a local stub
+ * server returning a TMDB-sized JSON body.
+ *
+ *  - simple:          RestTemplate on SimpleClientHttpRequestFactory (the old setup)
+ *  - pooled:          RestTemplate on the pooled HttpClient 5 stack from RestTemplateConfig
+ *  - webclient-fresh: WebClient opening a new connection per call
+ *  - webclient-pooled: WebClient on the shared, metered ConnectionProvider
+ *
+ * The stub is plain HTTP on loopback, so a new connection costs a TCP
+ * handshake only; against TMDB the TLS handshake widens the gap. Pool
+ * acquire stats are printed after each trial.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(16)
+@State(Scope.Benchmark)
+public class ExternalHttpClientBenchmark {
+
+    @Param({"simple", "pooled", "webclient-fresh", "webclient-pooled"})
+    public String client;
+
+    @Param({"4096"})
+    public int bodyBytes;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String url;
+
+    private RestTemplate restTemplate;
+    private WebClient webClient;
+    private CloseableHttpClient httpClient;
+    private ConnectionProvider provider;
+    private final HttpPoolMetrics metrics = new HttpPoolMetrics();
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        byte[] body = json(bodyBytes);
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        serverThreads = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverThreads);
+        server.createContext("/movie", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/movie";
+
+        switch (client) {
+            case "simple" -> {
+                SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+                factory.setConnectTimeout(5000);
+                factory.setReadTimeout(5000);
+                restTemplate = new RestTemplate(factory);
+            }
+            case "pooled" -> {
+                PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(200)
+                        .setMaxConnPerRoute(50)
+                        .build();
+                RequestConfig requestConfig = RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofSeconds(5))
+                        .setResponseTimeout(Timeout.ofSeconds(5))
+                        .build();
+                httpClient = MeteredHttpClients.create(connectionManager, requestConfig,
+                        TimeValue.ofSeconds(30), metrics.pool("restTemplate"));
+                restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+            }
+            case "webclient-fresh" -> webClient = WebClient.builder()
+                    .clientConnector(new ReactorClientHttpConnector(HttpClient.newConnection()))
+                    .build();
+            case "webclient-pooled" -> {
+                provider = new MeteredConnectionProvider(ConnectionProvider.builder("bench")
+                        .maxConnections(50)
+                        .pendingAcquireTimeout(Duration.ofSeconds(5))
+                        .maxIdleTime(Duration.ofSeconds(30)), metrics.pool("webClient"));
+                webClient = WebClient.builder()
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(provider)))
+                        .build();
+            }
+            default -> throw new IllegalArgumentException("Unknown client " + client);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (!metrics.stats().isEmpty()) {
+            System.out.println();
+            System.out.println(client + " pool: " + metrics.stats());
+        }
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        if (provider != null) {
+            provider.dispose();
+        }
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Benchmark
+    public int call() {
+        String body = restTemplate != null
+                ? restTemplate.getForObject(url, String.class)
+                : webClient.get().uri(url).retrieve().bodyToMono(String.class).block(Duration.ofSeconds(10));
+        return body.length();
+    }
+
+    private static byte[] json(int size) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder("{\"id\":550,\"title\":\"")
+                .append(Fixtures.randomName(random)).append("\",\"overview\":\"");
+        while (json.length() < size - 2) {
+            json.append((char) ('a' + random.nextInt(26)));
+        }
+        return json.append("\"}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,59 @@
+package com.cop_3060.benchmark;
+
+import com.cop_3060.dto.CreateCategoryRequest;
+import com.cop_3060.dto.CreateLocationRequest;
+import com.cop_3060.dto.CreateResourceRequest;
+import com.cop_3060.service.CategoryService;
+import com.cop_3060.service.LocationService;
+import com.cop_3060.service.ResourceService;
+
+import java.util.Random;
+
+/**
+ * Builds the in-memory services through the same constructors Spring uses
+ * (ResourceService registers itself with the other two) and fills them with data.
+ */
+final class Fixtures {
+
+    static final int LOCATIONS = 50;
+    static final int CATEGORIES = 20;
+
+    private static final String[] WORDS = {
+            "projector", "laptop", "camera", "tripod", "microphone", "speaker", "cable",
+            "monitor", "keyboard", "router", "tablet", "charger", "headset", "printer"
+    };
+
+    final LocationService locations = new LocationService();
+    final CategoryService categories = new CategoryService();
+    final ResourceService resources = new ResourceService(locations, categories);
+
+    private Fixtures() {}
+
+    /** Services holding {@code count} resources spread over the default locations and categories. */
+    static Fixtures withResources(int count, long seed) {
+        Fixtures f = new Fixtures();
+        for (int i = 0; i < LOCATIONS; i++) {
+            f.locations.create(new CreateLocationRequest("Building " + i, "Room " + i));
+        }
+        for (int i = 0; i < CATEGORIES; i++) {
+            f.categories.create(new CreateCategoryRequest("Category " + i, "Generated category " + i));
+        }
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            f.resources.create(randomRequest(random));
+        }
+        return f;
+    }
+
+    static CreateResourceRequest randomRequest(Random random) {
+        return new CreateResourceRequest(
+                randomName(random),
+                "Generated resource",
+                1L + random.nextInt(LOCATIONS),
+                1L + random.nextInt(CATEGORIES));
+    }
+
+    static String randomName(Random random) {
+        return WORDS[random.nextInt(WORDS.length)] + " " + Integer.toString(random.nextInt(1_000_000), 36);
+    }
+}
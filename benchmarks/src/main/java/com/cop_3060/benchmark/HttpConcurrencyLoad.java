@@ -0,0 +1,151 @@
+package com.cop_3060.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Closed-loop HTTP load against a running backend, for comparing the
+ * platform-thread and virtual-thread request models.
+ * Not a JMH suite: JMH measures code in-process, this measures the server
+ * from the outside at 1k-10k open connections.
+ *
+ * Each of {@code concurrency} simulated clients keeps exactly one request in
+ * flight on its own connection: send, wait, send again. After a warmup the
+ * run reports requests/sec and p50/p99/max latency per concurrency level.
+ * Requests are sent asynchronously, so the load generator needs only a few
+ * threads even at 10k clients.
+ *
+ * Arguments are key=value:
+ *  url          endpoint to hit (default http://localhost:8080/api/movies?size=20)
+ *  concurrency  comma separated client counts (default 1000,2500,5000,10000)
+ *  warmup       seconds per level before measuring (default 10)
+ *  duration     measured seconds per level (default 30)
+ *  label        name printed with each row, e.g. "platform" or "virtual"
+ */
+public class HttpConcurrencyLoad {
+
+    /** Latency histogram resolution and range: 100 us buckets up to 60 s */
+    private static final long BUCKET_NANOS = 100_000;
+    private static final int BUCKETS = 600_000;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        options.put("url", "http://localhost:8080/api/movies?size=20");
+        options.put("concurrency", "1000,2500,5000,10000");
+        options.put("warmup", "10");
+        options.put("duration", "30");
+        options.put("label", "run");
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0 || !options.containsKey(arg.substring(0, eq))) {
+                throw new IllegalArgumentException("Unknown argument " + arg + "; expected one of " + options.keySet());
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+
+        URI uri = URI.create(options.get("url"));
+        int[] levels = Arrays.stream(options.get("concurrency").split(","))
+                .map(String::trim).mapToInt(Integer::parseInt).toArray();
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.get("warmup")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.get("duration")));
+
+        System.out.printf("%-10s %11s %10s %11s %9s %9s %9s %8s%n",
+                "label", "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int concurrency : levels) {
+            Result result = run(uri, concurrency, warmup, duration);
+            System.out.printf("%-10s %11d %10d %11.1f %9.2f %9.2f %9.2f %8d%n",
+                    options.get("label"), concurrency, result.requests.get(), result.requests.get() / (double) duration.toSeconds(),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99), result.maxNanos.get() / 1e6, result.errors.get());
+        }
+    }
+
+    private static Result run(URI uri, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        ExecutorService io = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .executor(io)
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(60)).GET().build();
+
+        long start = System.nanoTime();
+        Result result = new Result(start + warmup.toNanos(), start + warmup.toNanos() + duration.toNanos());
+        CountDownLatch done = new CountDownLatch(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            loop(client, io, request, result, done);
+        }
+        done.await();
+        io.shutdown();
+        io.awaitTermination(10, TimeUnit.SECONDS);
+        return result;
+    }
+
+    /** One client: send, record, repeat until the measured window closes */
+    private static void loop(HttpClient client, ExecutorService io, HttpRequest request, Result result, CountDownLatch done) {
+        long sent = System.nanoTime();
+        if (sent >= result.measureEnd) {
+            done.countDown();
+            return;
+        }
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                // Async, so a request that fails immediately can't recurse on the caller's stack
+                .whenCompleteAsync((response, error) -> {
+                    long received = System.nanoTime();
+                    if (sent >= result.measureStart && received <= result.measureEnd) {
+                        result.record(received - sent, error == null && response.statusCode() < 400);
+                    }
+                    loop(client, io, request, result, done);
+                }, io);
+    }
+
+    private static final class Result {
+        final long measureStart;
+        final long measureEnd;
+        final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong maxNanos = new AtomicLong();
+
+        Result(long measureStart, long measureEnd) {
+            this.measureStart = measureStart;
+            this.measureEnd = measureEnd;
+        }
+
+        void record(long nanos, boolean ok) {
+            histogram.incrementAndGet((int) Math.min(BUCKETS - 1, nanos / BUCKET_NANOS));
+            requests.incrementAndGet();
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        double percentileMillis(double p) {
+            long total = requests.get();
+            if (total == 0) {
+                return 0;
+            }
+            long rank = (long) Math.ceil(p * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += histogram.get(i);
+                if (seen >= rank) {
+                    return (i + 1) * BUCKET_NANOS / 1e6;
+                }
+            }
+            return BUCKETS * BUCKET_NANOS / 1e6;
+        }
+    }
+}
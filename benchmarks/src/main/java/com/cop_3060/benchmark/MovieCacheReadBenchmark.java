@@ -0,0 +1,226 @@
+package com.cop_3060.benchmark;
+
+import com.cameron.cop3060.entity.CompressedStringConverter;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reading external_movie_cache pages before and after moving api_response
+ * into the compressed external_movie_payload side table.
+ *
+ *  - before:  one wide table, api_response TEXT inline, every column read
+ *  - entity:  the entity columns after the split (no payload)
+ *  - summary: the ExternalMovieSummary projection used for listings
+ *  - payload: one payload fetched by id and decompressed (detail view)
+ *
+ * The primary score is rows/s; the "bytes" aux counter is the column data
+ * pulled through JDBC per second. Runs against in-memory H2.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class MovieCacheReadBenchmark {
+
+    static final int PAGE = 100;
+
+    private static final String ENTITY_COLUMNS = "id, tmdb_id, title, original_title, overview, poster_path, "
+            + "backdrop_path, release_year, vote_average, vote_count, popularity, genre_ids, director, "
+            + "expires_at, fetch_count, is_detailed";
+    private static final String SUMMARY_COLUMNS = "id, tmdb_id, title, release_year, vote_average, "
+            + "popularity, poster_path, fetch_count, expires_at, is_detailed";
+
+    @Param({"10000"})
+    public int rows;
+
+    private Connection connection;
+    private PreparedStatement before;
+    private PreparedStatement entity;
+    private PreparedStatement summary;
+    private PreparedStatement payload;
+    private final CompressedStringConverter converter = new CompressedStringConverter();
+    private Random random;
+
+    /** Per-thread JDBC volume, reported next to the score */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Io {
+        public long bytes;
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:movie_cache;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            String columns = "id BIGINT PRIMARY KEY, tmdb_id BIGINT, title VARCHAR(300), original_title VARCHAR(300), "
+                    + "overview VARCHAR(5000), poster_path VARCHAR(500), backdrop_path VARCHAR(500), "
+                    + "release_year INT, vote_average DOUBLE, vote_count INT, popularity DOUBLE, "
+                    + "genre_ids VARCHAR(200), director VARCHAR(200), expires_at TIMESTAMP, "
+                    + "fetch_count INT, is_detailed BOOLEAN";
+            ddl.execute("CREATE TABLE cache_before (" + columns + ", api_response CLOB)");
+            ddl.execute("CREATE TABLE cache_after (" + columns + ")");
+            ddl.execute("CREATE TABLE payload_after (cache_id BIGINT PRIMARY KEY, api_response_gz VARBINARY(4194304))");
+        }
+
+        Random data = new Random(42);
+        long rawBytes = 0;
+        long storedBytes = 0;
+        try (PreparedStatement b = connection.prepareStatement("INSERT INTO cache_before VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+             PreparedStatement a = connection.prepareStatement("INSERT INTO cache_after VALUES (?,?,?,?,?,?,?,?,?,?,?,?,?,?,?,?)");
+             PreparedStatement p = connection.prepareStatement("INSERT INTO payload_after VALUES (?,?)")) {
+            for (int id = 1; id <= rows; id++) {
+                String title = Fixtures.randomName(data);
+                String overview = paragraph(data, 400 + data.nextInt(800));
+                String json = tmdbJson(data, id, title, overview);
+                byte[] compressed = converter.convertToDatabaseColumn(json);
+                rawBytes += json.getBytes(StandardCharsets.UTF_8).length;
+                storedBytes += compressed.length;
+
+                bindEntity(b, id, title, overview, data);
+                b.setString(17, json);
+                b.addBatch();
+                bindEntity(a, id, title, overview, data);
+                a.addBatch();
+                p.setLong(1, id);
+                p.setBytes(2, compressed);
+                p.addBatch();
+                if (id % 500 == 0) {
+                    b.executeBatch();
+                    a.executeBatch();
+                    p.executeBatch();
+                }
+            }
+            b.executeBatch();
+            a.executeBatch();
+            p.executeBatch();
+        }
+        System.out.printf("api_response: %d rows, %.1f KB raw -> %.1f KB compressed (%.1fx)%n",
+                rows, rawBytes / 1024.0 / rows, storedBytes / 1024.0 / rows, (double) rawBytes / storedBytes);
+
+        before = connection.prepareStatement("SELECT " + ENTITY_COLUMNS + ", api_response FROM cache_before "
+                + "WHERE id > ? ORDER BY id LIMIT " + PAGE);
+        entity = connection.prepareStatement("SELECT " + ENTITY_COLUMNS + " FROM cache_after "
+                + "WHERE id > ? ORDER BY id LIMIT " + PAGE);
+        summary = connection.prepareStatement("SELECT " + SUMMARY_COLUMNS + " FROM cache_after "
+                + "WHERE id > ? ORDER BY id LIMIT " + PAGE);
+        payload = connection.prepareStatement("SELECT api_response_gz FROM payload_after WHERE cache_id = ?");
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public void pageBefore(Io io, Blackhole bh) throws SQLException {
+        io.bytes += readPage(before, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public void pageEntityAfter(Io io, Blackhole bh) throws SQLException {
+        io.bytes += readPage(entity, bh);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PAGE)
+    public void pageSummaryAfter(Io io, Blackhole bh) throws SQLException {
+        io.bytes += readPage(summary, bh);
+    }
+
+    /** Detail view: one payload row, decompressed (counts as one row) */
+    @Benchmark
+    public String payloadAfter(Io io) throws SQLException {
+        payload.setLong(1, 1 + random.nextInt(rows));
+        try (ResultSet rs = payload.executeQuery()) {
+            rs.next();
+            byte[] column = rs.getBytes(1);
+            io.bytes += column.length;
+            return converter.convertToEntityAttribute(column);
+        }
+    }
+
+    private long readPage(PreparedStatement query, Blackhole bh) throws SQLException {
+        query.setLong(1, random.nextInt(Math.max(1, rows - PAGE)));
+        long bytes = 0;
+        try (ResultSet rs = query.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int c = 1; c <= columns; c++) {
+                    Object value = rs.getObject(c);
+                    bytes += value instanceof String s ? s.length() : 8;
+                    bh.consume(value);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static void bindEntity(PreparedStatement st, long id, String title, String overview, Random data)
+            throws SQLException {
+        st.setLong(1, id);
+        st.setLong(2, 100_000 + id);
+        st.setString(3, title);
+        st.setString(4, title);
+        st.setString(5, overview);
+        st.setString(6, "/poster/" + id + ".jpg");
+        st.setString(7, "/backdrop/" + id + ".jpg");
+        st.setInt(8, 1950 + data.nextInt(75));
+        st.setDouble(9, data.nextDouble() * 10);
+        st.setInt(10, data.nextInt(20_000));
+        st.setDouble(11, data.nextDouble() * 500);
+        st.setString(12, "18,28,35");
+        st.setString(13, Fixtures.randomName(data));
+        st.setTimestamp(14, new Timestamp(System.currentTimeMillis() + data.nextInt(86_400_000)));
+        st.setInt(15, 1 + data.nextInt(50));
+        st.setBoolean(16, true);
+    }
+
+    private static String paragraph(Random data, int length) {
+        StringBuilder sb = new StringBuilder(length + 16);
+        while (sb.length() < length) {
+            sb.append(Fixtures.randomName(data).toLowerCase()).append(' ');
+        }
+        return sb.toString().trim();
+    }
+
+    /** Detail response with credits, shaped like TMDB's /movie/{id}?append_to_response=credits */
+    private static String tmdbJson(Random data, long id, String title, String overview) {
+        StringBuilder sb = new StringBuilder(24_000);
+        sb.append("{\"id\":").append(100_000 + id)
+                .append(",\"title\":\"").append(title)
+                .append("\",\"overview\":\"").append(overview)
+                .append("\",\"runtime\":").append(80 + data.nextInt(100))
+                .append(",\"genres\":[{\"id\":18,\"name\":\"Drama\"},{\"id\":28,\"name\":\"Action\"}]")
+                .append(",\"credits\":{\"cast\":[");
+        for (int i = 0; i < 40; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(data.nextInt(5_000_000))
+                    .append(",\"name\":\"").append(Fixtures.randomName(data))
+                    .append("\",\"character\":\"").append(Fixtures.randomName(data))
+                    .append("\",\"order\":").append(i)
+                    .append(",\"profile_path\":\"/p/").append(Integer.toHexString(data.nextInt())).append(".jpg\"}");
+        }
+        sb.append("],\"crew\":[");
+        for (int i = 0; i < 80; i++) {
+            if (i > 0) sb.append(',');
+            sb.append("{\"id\":").append(data.nextInt(5_000_000))
+                    .append(",\"name\":\"").append(Fixtures.randomName(data))
+                    .append("\",\"department\":\"").append(i == 0 ? "Directing" : "Crew")
+                    .append("\",\"job\":\"").append(i == 0 ? "Director" : "Crew Member").append("\"}");
+        }
+        return sb.append("]}}").toString();
+    }
+}
@@ -0,0 +1,97 @@
+package com.cop_3060.benchmark;
+
+import com.cop_3060.dto.CreateResourceRequest;
+import com.cop_3060.dto.ResourceDto;
+import com.cop_3060.dto.UpdateResourceRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of ResourceService create/findAll/update/delete
+ * at different store sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class ResourceServiceBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int entries;
+
+    private Fixtures fixtures;
+    private long[] liveIds;
+    private Random random;
+    private String deepCursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixtures = Fixtures.withResources(entries, 42);
+        liveIds = new long[entries];
+        for (int i = 0; i < entries; i++) liveIds[i] = i + 1;
+        random = new Random(7);
+
+        // Cursor pointing roughly at the middle of the name order
+        Map<String, Object> page = fixtures.resources.findAfter(null, entries / 2, null, null, false);
+        deepCursor = (String) page.get("nextCursor");
+    }
+
+    @Benchmark
+    public ResourceDto create() {
+        ResourceDto created = fixtures.resources.create(Fixtures.randomRequest(random));
+        // Keep the store size stable: swap the new resource in for a random existing one
+        int slot = random.nextInt(entries);
+        fixtures.resources.delete(liveIds[slot]);
+        liveIds[slot] = created.id();
+        return created;
+    }
+
+    @Benchmark
+    public ResourceDto update() {
+        long id = liveIds[random.nextInt(entries)];
+        return fixtures.resources.update(id, new UpdateResourceRequest(
+                Fixtures.randomName(random), "Updated resource",
+                1L + random.nextInt(Fixtures.LOCATIONS), 1L + random.nextInt(Fixtures.CATEGORIES)));
+    }
+
+    @Benchmark
+    public Map<String, Object> findAllFirstPage() {
+        return fixtures.resources.findAll(0, 10, null, null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> findAllByCategory() {
+        return fixtures.resources.findAll(0, 10, null, "Category " + random.nextInt(Fixtures.CATEGORIES), null);
+    }
+
+    @Benchmark
+    public Map<String, Object> findAllSearch() {
+        return fixtures.resources.findAll(0, 10, null, null, "camera");
+    }
+
+    @Benchmark
+    public Map<String, Object> findAllCustomSort() {
+        return fixtures.resources.findAll(0, 10, "-id", null, null);
+    }
+
+    @Benchmark
+    public Map<String, Object> findAfterDeepCursor() {
+        return fixtures.resources.findAfter(deepCursor, 10, null, null, false);
+    }
+
+    /** Delete plus the re-create that keeps the store size constant; subtract create() for delete alone. */
+    @Benchmark
+    public ResourceDto deleteAndRecreate() {
+        int slot = random.nextInt(entries);
+        fixtures.resources.delete(liveIds[slot]);
+        CreateResourceRequest request = Fixtures.randomRequest(random);
+        ResourceDto created = fixtures.resources.create(request);
+        liveIds[slot] = created.id();
+        return created;
+    }
+}
@@ -0,0 +1,101 @@
+package com.cop_3060.controller;
+
+import com.cop_3060.dto.CategoryDto;
+import com.cop_3060.dto.CreateCategoryRequest;
+import com.cop_3060.dto.CreateLocationRequest;
+import com.cop_3060.dto.CreateResourceRequest;
+import com.cop_3060.dto.LocationDto;
+import com.cop_3060.exception.GlobalExceptionHandler;
+import com.cop_3060.service.CategoryService;
+import com.cop_3060.service.LocationService;
+import com.cop_3060.service.ResourceService;
+import com.cop_3060.store.StoreConfig;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Location and category deletes with the services wired by Spring, not by hand:
+ * one still referenced by a resource is refused with 409 and stays in place.
+ */
+@SpringJUnitWebConfig(DeleteInUseTest.Config.class)
+class DeleteInUseTest {
+
+    @Configuration
+    @EnableWebMvc
+    @Import({StoreConfig.class, LocationService.class, CategoryService.class, ResourceService.class,
+            LocationController.class, CategoryController.class, GlobalExceptionHandler.class})
+    static class Config {
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+
+    @Autowired
+    private WebApplicationContext context;
+
+    @Autowired
+    private LocationService locationService;
+
+    @Autowired
+    private CategoryService categoryService;
+
+    @Autowired
+    private ResourceService resourceService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        mvc = MockMvcBuilders.webAppContextSetup(context).build();
+    }
+
+    @Test
+    void deletingCategoryInUseReturnsConflict() throws Exception {
+        LocationDto location = locationService.create(new CreateLocationRequest("Library", "101"));
+        CategoryDto category = categoryService.create(new CreateCategoryRequest("Laptops", "Loaner laptops"));
+        resourceService.create(new CreateResourceRequest("ThinkPad 1", "14 inch", location.id(), category.id()));
+
+        mvc.perform(delete("/api/categories/{id}", category.id()))
+                .andExpect(status().isConflict());
+
+        assertThat(categoryService.exists(category.id())).isTrue();
+    }
+
+    @Test
+    void deletingLocationInUseReturnsConflict() throws Exception {
+        LocationDto location = locationService.create(new CreateLocationRequest("Engineering", "B12"));
+        CategoryDto category = categoryService.create(new CreateCategoryRequest("Cameras", "Video cameras"));
+        resourceService.create(new CreateResourceRequest("Camera 1", "4K", location.id(), category.id()));
+
+        mvc.perform(delete("/api/locations/{id}", location.id()))
+                .andExpect(status().isConflict());
+
+        assertThat(locationService.exists(location.id())).isTrue();
+    }
+
+    @Test
+    void deletingUnusedCategoryReturnsNoContent() throws Exception {
+        CategoryDto category = categoryService.create(new CreateCategoryRequest("Tripods", "Camera tripods"));
+
+        mvc.perform(delete("/api/categories/{id}", category.id()))
+                .andExpect(status().isNoContent());
+
+        assertThat(categoryService.exists(category.id())).isFalse();
+    }
+}
@@ -0,0 +1,67 @@
+package com.cameron.cop3060.controller;
+
+import com.cameron.cop3060.service.BulkIngestService;
+import com.cameron.cop3060.service.BulkIngestService.Format;
+import com.cameron.cop3060.service.BulkIngestService.IngestReport;
+import com.cameron.cop3060.service.BulkIngestService.Target;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Bulk upload endpoints
+ * 
+ * POST a CSV (Content-Type: text/csv, header row first) or NDJSON
+ * (application/x-ndjson, one object per line) body to /api/bulk/movies,
+ * /api/bulk/users or /api/bulk/hobbies (hobbies need a userId field).
+ * The body is streamed, never buffered whole. The response reports rows
+ * committed, rows rejected and rows/sec.
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/bulk")
+public class BulkIngestController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+    private final BulkIngestService bulkIngestService;
+
+    public BulkIngestController(BulkIngestService bulkIngestService) {
+        this.bulkIngestService = bulkIngestService;
+    }
+
+    @PostMapping("/{entity}")
+    public ResponseEntity<IngestReport> ingest(@PathVariable String entity,
+                                               @RequestHeader(value = "Content-Type", defaultValue = "text/csv") MediaType contentType,
+                                               InputStream body) {
+        IngestReport report = bulkIngestService.ingest(target(entity), format(contentType), body);
+        // Committed chunks stay committed; 422 tells the client the upload stopped early
+        return ResponseEntity.status(report.aborted() == null ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(report);
+    }
+
+    private static Target target(String entity) {
+        try {
+            return Target.valueOf(entity.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Bulk ingest supports movies, users and hobbies");
+        }
+    }
+
+    private static Format format(MediaType contentType) {
+        if (CSV.isCompatibleWith(contentType)) {
+            return Format.CSV;
+        }
+        if (NDJSON.isCompatibleWith(contentType) || MediaType.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return Format.NDJSON;
+        }
+        throw new ResponseStatusException(HttpStatus.UNSUPPORTED_MEDIA_TYPE, "Send text/csv or application/x-ndjson");
+    }
+}
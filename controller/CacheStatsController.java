@@ -0,0 +1,61 @@
+package com.cameron.cop3060.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.CacheManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Live Caffeine statistics for every cache in the CacheManager
+ * Use these to size app.cache.specs from real traffic
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    private final CacheManager cacheManager;
+
+    public CacheStatsController(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @GetMapping("/stats")
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        for (String name : new TreeSet<>(cacheManager.getCacheNames())) {
+            org.springframework.cache.Cache cache = cacheManager.getCache(name);
+            if (cache != null && cache.getNativeCache() instanceof Cache<?, ?> caffeine) {
+                result.put(name, describe(caffeine));
+            }
+        }
+        return result;
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("estimatedSize", cache.estimatedSize());
+        cache.policy().eviction().ifPresent(eviction -> {
+            eviction.weightedSize().ifPresent(weight -> body.put("weightedSizeBytes", weight));
+            body.put("maximum", eviction.getMaximum());
+        });
+        body.put("requestCount", stats.requestCount());
+        body.put("hitCount", stats.hitCount());
+        body.put("missCount", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictionCount", stats.evictionCount());
+        body.put("evictionWeight", stats.evictionWeight());
+        body.put("loadSuccessCount", stats.loadSuccessCount());
+        body.put("loadFailureCount", stats.loadFailureCount());
+        body.put("averageLoadPenaltyMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        return body;
+    }
+}
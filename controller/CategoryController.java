@@ -2,9 +2,11 @@ package com.cop_3060.controller;
 
 import com.cop_3060.dto.*;
 import com.cop_3060.service.CategoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.Map;
@@ -14,9 +16,11 @@ import java.util.Map;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final ObjectMapper objectMapper;
 
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, ObjectMapper objectMapper) {
         this.categoryService = categoryService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -30,12 +34,24 @@ public class CategoryController {
     public ResponseEntity<Map<String, Object>> list(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String sort
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        // Cursor mode is opt-in: any "after" parameter (empty for the first page) switches to keyset paging
+        if (after != null) {
+            return ResponseEntity.ok(categoryService.findAfter(after, size, withTotal));
+        }
         Map<String, Object> envelope = categoryService.findAll(page, size, sort);
         return ResponseEntity.ok(envelope);
     }
 
+    /** Export every category as NDJSON, streamed from the index. */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonExport.of(objectMapper, categoryService::stream);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CategoryDto> getById(@PathVariable Long id) {
         return ResponseEntity.ok(categoryService.findById(id));
@@ -0,0 +1,69 @@
+package com.cameron.cop3060.controller;
+
+import com.cameron.cop3060.config.DbConcurrencyLimiter;
+import com.cameron.cop3060.config.HttpPoolMetrics;
+import com.cameron.cop3060.config.ReadWriteRoutingDataSource;
+import com.cameron.cop3060.config.VirtualThreadPinningMonitor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Request concurrency at a glance: the thread model in use, the database
+ * limiter's queue, (with virtual threads) carrier pinning by call site,
+ * the outbound HTTP connection pools and read replica routing
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/runtime")
+public class ConcurrencyStatsController {
+
+    private final DbConcurrencyLimiter dbLimiter;
+    private final ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor;
+    private final HttpPoolMetrics httpPoolMetrics;
+    private final ObjectProvider<ReadWriteRoutingDataSource> routingDataSource;
+
+    public ConcurrencyStatsController(DbConcurrencyLimiter dbLimiter,
+                                      ObjectProvider<VirtualThreadPinningMonitor> pinningMonitor,
+                                      HttpPoolMetrics httpPoolMetrics,
+                                      ObjectProvider<ReadWriteRoutingDataSource> routingDataSource) {
+        this.dbLimiter = dbLimiter;
+        this.pinningMonitor = pinningMonitor;
+        this.httpPoolMetrics = httpPoolMetrics;
+        this.routingDataSource = routingDataSource;
+    }
+
+    @GetMapping("/concurrency")
+    public Map<String, Object> getStats() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("requestThread", Thread.currentThread().toString());
+        result.put("dbLimiter", dbLimiter.stats());
+        VirtualThreadPinningMonitor monitor = pinningMonitor.getIfAvailable();
+        if (monitor != null) {
+            result.put("pinning", monitor.stats());
+        }
+        return result;
+    }
+
+    /**
+     * Acquire latency and leased / idle / pending connections per pool and host
+     */
+    @GetMapping("/http-pools")
+    public Map<String, Map<String, Object>> getHttpPoolStats() {
+        return httpPoolMetrics.stats();
+    }
+
+    /**
+     * Connections routed to the primary and each replica, with replica health and lag
+     */
+    @GetMapping("/datasources")
+    public Map<String, Object> getDataSourceStats() {
+        ReadWriteRoutingDataSource routing = routingDataSource.getIfAvailable();
+        return routing != null ? routing.stats() : Map.of("replicas", Map.of());
+    }
+}
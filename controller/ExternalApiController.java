@@ -1 +1,89 @@
+package com.cameron.cop3060.controller;
 
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.dto.external.TMDBSearchResponseDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.repository.ExternalMovieSummary;
+import com.cameron.cop3060.service.external.ExternalApiService;
+import com.cameron.cop3060.service.external.MovieGenreIndex;
+import org.springframework.data.domain.Page;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * REST endpoints backed by external APIs (TMDB)
+ * Handlers return Mono so request threads are released while TMDB responds
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/external")
+public class ExternalApiController {
+
+    private final ExternalApiService externalApiService;
+
+    public ExternalApiController(ExternalApiService externalApiService) {
+        this.externalApiService = externalApiService;
+    }
+
+    @GetMapping("/movies/{tmdbId}")
+    public Mono<TMDBMovieDTO> getMovie(@PathVariable long tmdbId) {
+        return externalApiService.getMovie(tmdbId);
+    }
+
+    @GetMapping("/movies/search")
+    public Mono<TMDBSearchResponseDTO> searchMovies(
+            @RequestParam String query,
+            @RequestParam(defaultValue = "1") int page) {
+        return externalApiService.searchMovies(query, page);
+    }
+
+    @GetMapping("/movies/popular")
+    public Mono<TMDBSearchResponseDTO> getPopularMovies(@RequestParam(defaultValue = "1") int page) {
+        return externalApiService.getPopularMovies(page);
+    }
+
+    @GetMapping("/movies/{tmdbId}/cached")
+    public Mono<ExternalMovieCache> getCachedMovie(@PathVariable long tmdbId) {
+        return externalApiService.getCachedMovie(tmdbId);
+    }
+
+    @GetMapping("/movies/cached")
+    public Mono<Page<ExternalMovieSummary>> listCachedMovies(
+            @RequestParam(required = false) String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+        return externalApiService.listCachedMovies(query, page, size);
+    }
+
+    /**
+     * Filter cached movies by TMDB genre ids, e.g. ?all=28&any=12,878&none=27&yearFrom=1990&minVote=7
+     */
+    @GetMapping("/movies/cached/by-genre")
+    public Mono<Map<String, Object>> findCachedByGenre(
+            @RequestParam(required = false) Set<Integer> all,
+            @RequestParam(required = false) Set<Integer> any,
+            @RequestParam(required = false) Set<Integer> none,
+            @RequestParam(required = false) Integer yearFrom,
+            @RequestParam(required = false) Integer yearTo,
+            @RequestParam(required = false) Double minVote,
+            @RequestParam(required = false) Double maxVote,
+            @RequestParam(defaultValue = "20") int limit) {
+        return externalApiService.findCachedByGenre(
+                new MovieGenreIndex.Query(all, any, none, yearFrom, yearTo, minVote, maxVote), limit);
+    }
+
+    @GetMapping(value = "/movies/{tmdbId}/raw", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<String> getRawResponse(@PathVariable long tmdbId) {
+        return externalApiService.getRawResponse(tmdbId);
+    }
+
+    @GetMapping("/metrics/single-flight")
+    public Map<String, Map<String, Long>> getSingleFlightStats() {
+        return externalApiService.getSingleFlightStats();
+    }
+}
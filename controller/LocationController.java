@@ -2,9 +2,11 @@ package com.cop_3060.controller;
 
 import com.cop_3060.dto.*;
 import com.cop_3060.service.LocationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
 import java.util.Map;
@@ -14,9 +16,11 @@ import java.util.Map;
 public class LocationController {
 
     private final LocationService locationService;
+    private final ObjectMapper objectMapper;
 
-    public LocationController(LocationService locationService) {
+    public LocationController(LocationService locationService, ObjectMapper objectMapper) {
         this.locationService = locationService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping
@@ -30,12 +34,24 @@ public class LocationController {
     public ResponseEntity<Map<String, Object>> list(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
-            @RequestParam(required = false) String sort
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        // Cursor mode is opt-in: any "after" parameter (empty for the first page) switches to keyset paging
+        if (after != null) {
+            return ResponseEntity.ok(locationService.findAfter(after, size, withTotal));
+        }
         Map<String, Object> envelope = locationService.findAll(page, size, sort);
         return ResponseEntity.ok(envelope);
     }
 
+    /** Export every location as NDJSON, streamed from the index. */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export() {
+        return NdjsonExport.of(objectMapper, locationService::stream);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<LocationDto> getById(@PathVariable Long id) {
         return ResponseEntity.ok(locationService.findById(id));
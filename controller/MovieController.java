@@ -0,0 +1,137 @@
+package com.cameron.cop3060.controller;
+
+import com.cameron.cop3060.dto.MovieRecommendationDTO;
+import com.cameron.cop3060.entity.Movie;
+import com.cameron.cop3060.service.KeysetPage;
+import com.cameron.cop3060.service.MovieService;
+import jakarta.validation.Valid;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * REST endpoints for the movies table
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/movies")
+public class MovieController {
+
+    private static final int MAX_SEARCH_RESULTS = 100;
+
+    private final MovieService movieService;
+
+    public MovieController(MovieService movieService) {
+        this.movieService = movieService;
+    }
+
+    /**
+     * Keyset-paged movies; pass the previous page's nextCursor as "after"
+     * 
+     * At most one filter: genre (by title), minRating (best first) or
+     * yearFrom/yearTo (oldest first). Without a filter, sort=title (default)
+     * or sort=year (newest first).
+     */
+    @GetMapping
+    public KeysetPage<Movie> listMovies(@RequestParam(required = false) String genre,
+                                        @RequestParam(required = false) Double minRating,
+                                        @RequestParam(required = false) Integer yearFrom,
+                                        @RequestParam(required = false) Integer yearTo,
+                                        @RequestParam(defaultValue = "title") String sort,
+                                        @RequestParam(required = false) String after,
+                                        @RequestParam(defaultValue = "20") int size) {
+        boolean byYears = yearFrom != null || yearTo != null;
+        requireAtMostOneFilter(genre, minRating, byYears);
+        if (genre != null) {
+            return movieService.pageByGenre(genre, after, size);
+        }
+        if (minRating != null) {
+            return movieService.pageByMinRating(minRating, after, size);
+        }
+        if (byYears) {
+            return movieService.pageByYearRange(yearFrom == null ? Integer.MIN_VALUE : yearFrom,
+                    yearTo == null ? Integer.MAX_VALUE : yearTo, after, size);
+        }
+        return switch (sort) {
+            case "title" -> movieService.pageByTitle(after, size);
+            case "year" -> movieService.pageByYearDesc(after, size);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be title or year");
+        };
+    }
+
+    /**
+     * Offset paging (Slice, no total count) for clients that need page numbers
+     * Same filters as the keyset listing, again at most one
+     */
+    @GetMapping("/pages")
+    public Slice<Movie> sliceMovies(@RequestParam(required = false) String genre,
+                                    @RequestParam(required = false) Double minRating,
+                                    @RequestParam(required = false) Integer yearFrom,
+                                    @RequestParam(required = false) Integer yearTo,
+                                    @RequestParam(defaultValue = "title") String sort,
+                                    @RequestParam(defaultValue = "0") int page,
+                                    @RequestParam(defaultValue = "20") int size) {
+        requireAtMostOneFilter(genre, minRating, yearFrom != null || yearTo != null);
+        Sort order = switch (sort) {
+            case "title" -> Sort.by("title");
+            case "year" -> Sort.by(Sort.Direction.DESC, "yearReleased");
+            case "rating" -> Sort.by(Sort.Direction.DESC, "rating");
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "sort must be title, year or rating");
+        };
+        return movieService.sliceMovies(genre, minRating, yearFrom, yearTo, page, size, order);
+    }
+
+    private static void requireAtMostOneFilter(String genre, Double minRating, boolean byYears) {
+        int filters = (genre != null ? 1 : 0) + (minRating != null ? 1 : 0) + (byYears ? 1 : 0);
+        if (filters > 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Use at most one of genre, minRating, yearFrom/yearTo");
+        }
+    }
+
+    @GetMapping("/{id}")
+    public Movie getMovie(@PathVariable Long id) {
+        return movieService.getMovieById(id);
+    }
+
+    /**
+     * "Users who liked this also liked", from favorite co-occurrence
+     */
+    @GetMapping("/{id}/also-liked")
+    public List<MovieRecommendationDTO> alsoLiked(@PathVariable Long id,
+                                                  @RequestParam(defaultValue = "10") int limit) {
+        return movieService.alsoLiked(id, limit);
+    }
+
+    /**
+     * Ranked title search from the in-process trigram index; tolerates small typos
+     */
+    @GetMapping("/search")
+    public List<Movie> searchByTitle(@RequestParam String title,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        return movieService.searchByTitle(title, Math.min(Math.max(limit, 1), MAX_SEARCH_RESULTS));
+    }
+
+    @PostMapping
+    public ResponseEntity<Movie> createMovie(@Valid @RequestBody Movie movie) {
+        Movie created = movieService.createMovie(movie);
+        return ResponseEntity.created(URI.create("/api/movies/" + created.getId())).body(created);
+    }
+
+    @PutMapping("/{id}")
+    public Movie updateMovie(@PathVariable Long id, @Valid @RequestBody Movie movie) {
+        return movieService.updateMovie(id, movie);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteMovie(@PathVariable Long id) {
+        movieService.deleteMovie(id);
+        return ResponseEntity.noContent().build();
+    }
+}
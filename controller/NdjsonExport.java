@@ -0,0 +1,45 @@
+package com.cop_3060.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a stream of DTOs as newline-delimited JSON (one object per line).
+ * Rows are serialized one at a time with a Jackson JsonGenerator straight to the
+ * response, so memory use does not grow with the export size. If the client
+ * disconnects, the next write fails with an IOException, which stops the
+ * iteration and closes the stream.
+ */
+final class NdjsonExport {
+
+    // Push output to the client every this many rows (the generator also flushes when its buffer fills)
+    private static final int FLUSH_EVERY = 1000;
+
+    private NdjsonExport() {}
+
+    static <T> ResponseEntity<StreamingResponseBody> of(ObjectMapper mapper, Supplier<Stream<T>> rows) {
+        StreamingResponseBody body = out -> {
+            try (Stream<T> stream = rows.get();
+                 JsonGenerator generator = mapper.createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+
+                Iterator<T> it = stream.iterator();
+                for (int n = 1; it.hasNext(); n++) {
+                    generator.writeObject(it.next());
+                    generator.writeRaw('\n');
+                    if (n % FLUSH_EVERY == 0) generator.flush();
+                }
+                generator.flush();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+}
@@ -2,55 +2,93 @@ package com.cop_3060.controller;
 
 import com.cop_3060.dto.*;
 import com.cop_3060.service.ResourceService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 
 @RestController
-@RequestMapping("/api/resources")
+@RequestMapping("/api")
 public class ResourceController {
 
     private final ResourceService resourceService;
+    private final ObjectMapper objectMapper;
 
-    public ResourceController(ResourceService resourceService) {
+    public ResourceController(ResourceService resourceService, ObjectMapper objectMapper) {
         this.resourceService = resourceService;
+        this.objectMapper = objectMapper;
     }
 
-    @PostMapping
+    @PostMapping("/resources")
     public ResponseEntity<ResourceDto> create(@Valid @RequestBody CreateResourceRequest request) {
         ResourceDto created = resourceService.create(request);
         URI location = URI.create("/api/resources/" + created.id());
         return ResponseEntity.created(location).body(created);
     }
 
-    @GetMapping
+    @GetMapping("/resources")
     public ResponseEntity<Map<String, Object>> list(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String sort,
             @RequestParam(required = false) String category,
-            @RequestParam(required = false) String q
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "false") boolean withTotal
     ) {
+        // Cursor mode is opt-in: any "after" parameter (empty for the first page) switches to keyset paging
+        if (after != null) {
+            return ResponseEntity.ok(resourceService.findAfter(after, size, category, q, withTotal));
+        }
         Map<String, Object> envelope = resourceService.findAll(page, size, sort, category, q);
         return ResponseEntity.ok(envelope);
     }
 
-    @GetMapping("/{id}")
+    /** Export every matching resource as NDJSON, streamed from the index in name order. */
+    @GetMapping("/resources/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String q
+    ) {
+        return NdjsonExport.of(objectMapper, () -> resourceService.stream(category, q));
+    }
+
+    @GetMapping("/resources/{id}")
     public ResponseEntity<ResourceDto> getById(@PathVariable Long id) {
         return ResponseEntity.ok(resourceService.findById(id));
     }
 
-    @PutMapping("/{id}")
+    @PutMapping("/resources/{id}")
     public ResponseEntity<ResourceDto> update(@PathVariable Long id, @Valid @RequestBody UpdateResourceRequest request) {
         return ResponseEntity.ok(resourceService.update(id, request));
     }
 
-    @DeleteMapping("/{id}")
+    @DeleteMapping("/resources/{id}")
     public ResponseEntity<Void> delete(@PathVariable Long id) {
         resourceService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Bulk endpoints use a ":batch" suffix on the collection path, which is why the class maps "/api".
+    // Items succeed or fail individually; see BatchItemResult.
+
+    @PostMapping("/resources:batch")
+    public ResponseEntity<Map<String, Object>> createBatch(@RequestBody List<CreateResourceRequest> requests) {
+        return ResponseEntity.ok(resourceService.createAll(requests));
+    }
+
+    @PutMapping("/resources:batch")
+    public ResponseEntity<Map<String, Object>> updateBatch(@RequestBody List<BatchUpdateResourceRequest> requests) {
+        return ResponseEntity.ok(resourceService.updateAll(requests));
+    }
+
+    @DeleteMapping("/resources:batch")
+    public ResponseEntity<Map<String, Object>> deleteBatch(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(resourceService.deleteAll(ids));
+    }
 }
@@ -0,0 +1,71 @@
+package com.cameron.cop3060.controller;
+
+import com.cameron.cop3060.dto.UserSummaryDTO;
+import com.cameron.cop3060.service.UserService;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST endpoints for users
+ * 
+ * @author Cameron Brown
+ */
+@RestController
+@RequestMapping("/api/users")
+public class UserController {
+
+    private final UserService userService;
+
+    public UserController(UserService userService) {
+        this.userService = userService;
+    }
+
+    /**
+     * Paged users with their hobbies and favorite movies, in a fixed number of queries per page
+     */
+    @GetMapping
+    public Page<UserSummaryDTO> listUsers(@RequestParam(defaultValue = "0") int page,
+                                          @RequestParam(defaultValue = "20") int size,
+                                          @RequestParam(required = false) String sort) {
+        return userService.listUsers(page, size, sort);
+    }
+
+    // ---- Favorite movies (idempotent; the user's favorites are never loaded) ----
+
+    @GetMapping("/{id}/favorites/{movieId}")
+    public ResponseEntity<Void> checkFavorite(@PathVariable Long id, @PathVariable Long movieId) {
+        return userService.isFavoriteMovie(id, movieId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    @PutMapping("/{id}/favorites/{movieId}")
+    public Map<String, Boolean> addFavorite(@PathVariable Long id, @PathVariable Long movieId) {
+        return Map.of("added", userService.addFavoriteMovie(id, movieId));
+    }
+
+    @DeleteMapping("/{id}/favorites/{movieId}")
+    public Map<String, Boolean> removeFavorite(@PathVariable Long id, @PathVariable Long movieId) {
+        return Map.of("removed", userService.removeFavoriteMovie(id, movieId));
+    }
+
+    /**
+     * Add many favorites: body is a JSON array of movie ids
+     */
+    @PostMapping("/{id}/favorites")
+    public Map<String, Integer> addFavorites(@PathVariable Long id, @RequestBody List<Long> movieIds) {
+        return Map.of("added", userService.addFavoriteMovies(id, movieIds));
+    }
+
+    /**
+     * Remove many favorites: /api/users/{id}/favorites?movieIds=1,2,3
+     */
+    @DeleteMapping("/{id}/favorites")
+    public Map<String, Integer> removeFavorites(@PathVariable Long id, @RequestParam List<Long> movieIds) {
+        return Map.of("removed", userService.removeFavoriteMovies(id, movieIds));
+    }
+}
@@ -0,0 +1,14 @@
+package com.cop_3060.dto;
+
+/**
+ * Outcome of one item in a bulk create/update/delete.
+ * {@code index} is the item's position in the request, {@code status} the
+ * HTTP status it would have had as a single call, and {@code message} is
+ * only set for failures.
+ */
+public record BatchItemResult(
+        int index,
+        int status,
+        Long id,
+        String message
+) {}
@@ -0,0 +1,15 @@
+package com.cameron.cop3060.dto;
+
+/**
+ * One "users who liked this also liked" entry
+ * score is co-occurrence cosine similarity (0..1, shrunk for rare pairs);
+ * together is how many users favorited both movies
+ * 
+ * @author Cameron Brown
+ */
+public record MovieRecommendationDTO(Long movieId,
+                                     String title,
+                                     Integer yearReleased,
+                                     double score,
+                                     int together) {
+}
@@ -0,0 +1,25 @@
+package com.cameron.cop3060.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One row of the paged user listing
+ * Built from projections, so serializing it never triggers lazy loading
+ * (and never exposes the password column)
+ * 
+ * @author Cameron Brown
+ */
+public record UserSummaryDTO(Long id,
+                             String firstName,
+                             String lastName,
+                             String email,
+                             Boolean isSubscribed,
+                             LocalDateTime createdAt,
+                             List<HobbyItem> hobbies,
+                             List<MovieItem> favoriteMovies) {
+
+    public record HobbyItem(Long id, String name, String category) {}
+
+    public record MovieItem(Long id, String title, Integer yearReleased) {}
+}
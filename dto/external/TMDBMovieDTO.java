@@ -209,4 +209,90 @@ public class TMDBMovieDTO {
     /**
      * Get full backdrop URL
      */
-    public String get
+    public String getFullBackdropUrl(String baseUrl) {
+        return (backdropPath != null && !backdropPath.isEmpty()) 
+            ? baseUrl + backdropPath 
+            : null;
+    }
+
+    // ==========================================
+    // GETTERS AND SETTERS
+    // ==========================================
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+
+    public String getOriginalTitle() { return originalTitle; }
+    public void setOriginalTitle(String originalTitle) { this.originalTitle = originalTitle; }
+
+    public String getOverview() { return overview; }
+    public void setOverview(String overview) { this.overview = overview; }
+
+    public String getPosterPath() { return posterPath; }
+    public void setPosterPath(String posterPath) { this.posterPath = posterPath; }
+
+    public String getBackdropPath() { return backdropPath; }
+    public void setBackdropPath(String backdropPath) { this.backdropPath = backdropPath; }
+
+    public String getReleaseDate() { return releaseDate; }
+    public void setReleaseDate(String releaseDate) { this.releaseDate = releaseDate; }
+
+    public Double getVoteAverage() { return voteAverage; }
+    public void setVoteAverage(Double voteAverage) { this.voteAverage = voteAverage; }
+
+    public Integer getVoteCount() { return voteCount; }
+    public void setVoteCount(Integer voteCount) { this.voteCount = voteCount; }
+
+    public Double getPopularity() { return popularity; }
+    public void setPopularity(Double popularity) { this.popularity = popularity; }
+
+    public List<Integer> getGenreIds() { return genreIds; }
+    public void setGenreIds(List<Integer> genreIds) { this.genreIds = genreIds; }
+
+    public List<GenreDTO> getGenres() { return genres; }
+    public void setGenres(List<GenreDTO> genres) { this.genres = genres; }
+
+    public String getOriginalLanguage() { return originalLanguage; }
+    public void setOriginalLanguage(String originalLanguage) { this.originalLanguage = originalLanguage; }
+
+    public Boolean getAdult() { return adult; }
+    public void setAdult(Boolean adult) { this.adult = adult; }
+
+    public Boolean getVideo() { return video; }
+    public void setVideo(Boolean video) { this.video = video; }
+
+    public Integer getRuntime() { return runtime; }
+    public void setRuntime(Integer runtime) { this.runtime = runtime; }
+
+    public Long getBudget() { return budget; }
+    public void setBudget(Long budget) { this.budget = budget; }
+
+    public Long getRevenue() { return revenue; }
+    public void setRevenue(Long revenue) { this.revenue = revenue; }
+
+    public String getTagline() { return tagline; }
+    public void setTagline(String tagline) { this.tagline = tagline; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getHomepage() { return homepage; }
+    public void setHomepage(String homepage) { this.homepage = homepage; }
+
+    public String getImdbId() { return imdbId; }
+    public void setImdbId(String imdbId) { this.imdbId = imdbId; }
+
+    public List<ProductionCompanyDTO> getProductionCompanies() { return productionCompanies; }
+    public void setProductionCompanies(List<ProductionCompanyDTO> productionCompanies) { this.productionCompanies = productionCompanies; }
+
+    public List<ProductionCountryDTO> getProductionCountries() { return productionCountries; }
+    public void setProductionCountries(List<ProductionCountryDTO> productionCountries) { this.productionCountries = productionCountries; }
+
+    public List<SpokenLanguageDTO> getSpokenLanguages() { return spokenLanguages; }
+    public void setSpokenLanguages(List<SpokenLanguageDTO> spokenLanguages) { this.spokenLanguages = spokenLanguages; }
+
+    public CreditsDTO getCredits() { return credits; }
+    public void setCredits(CreditsDTO credits) { this.credits = credits; }
+}
@@ -16,3 +16,29 @@ public class TMDBSearchResponseDTO {
 
     @JsonProperty("total_pages")
     private Integer totalPages;
+
+    private List<TMDBMovieDTO> results;
+
+    @JsonProperty("total_results")
+    private Integer totalResults;
+
+    // ==========================================
+    // CONSTRUCTORS
+    // ==========================================
+    public TMDBSearchResponseDTO() {}
+
+    // ==========================================
+    // GETTERS AND SETTERS
+    // ==========================================
+    public Integer getPage() { return page; }
+    public void setPage(Integer page) { this.page = page; }
+
+    public Integer getTotalPages() { return totalPages; }
+    public void setTotalPages(Integer totalPages) { this.totalPages = totalPages; }
+
+    public List<TMDBMovieDTO> getResults() { return results; }
+    public void setResults(List<TMDBMovieDTO> results) { this.results = results; }
+
+    public Integer getTotalResults() { return totalResults; }
+    public void setTotalResults(Integer totalResults) { this.totalResults = totalResults; }
+}
@@ -0,0 +1,13 @@
+package com.cop_3060.exception;
+
+/**
+ * Thrown when a query parameter cannot be interpreted,
+ * e.g. a malformed paging cursor.
+ *
+ * Results in HTTP 400 Bad Request.
+ */
+public class BadRequestException extends RuntimeException {
+    public BadRequestException(String message) {
+        super(message);
+    }
+}
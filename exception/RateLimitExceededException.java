@@ -0,0 +1,27 @@
+package com.cameron.cop3060.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Thrown when an external API call cannot get a rate limit token in time
+ * Returns HTTP 429 status when thrown
+ * 
+ * @author Cameron Brown
+ */
+@ResponseStatus(value = HttpStatus.TOO_MANY_REQUESTS)
+public class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String apiName;
+
+    public RateLimitExceededException(String apiName) {
+        super(String.format("Rate limit for %s exceeded, try again later", apiName));
+        this.apiName = apiName;
+    }
+
+    public String getApiName() {
+        return apiName;
+    }
+}
@@ -3,26 +3,54 @@ package com.cop_3060.service;
 import com.cop_3060.dto.*;
 import com.cop_3060.exception.ConflictException;
 import com.cop_3060.exception.NotFoundException;
+import com.cop_3060.store.RecordLog;
+import com.cop_3060.util.PagingUtil;
+import com.cop_3060.util.SortKey;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CategoryService {
 
     private final Map<Long, CategoryDto> store = new ConcurrentHashMap<>();
     private final AtomicLong idGen = new AtomicLong();
+    private final NavigableSet<SortKey> byName = new ConcurrentSkipListSet<>(); // keyset order for cursor paging
 
-    private ResourceService resourceService; // circular dependency handled by setter
+    private final RecordLog<CategoryDto> log;
+
+    private ResourceService resourceService; // set by ResourceService's constructor (circular dependency)
+
+    public CategoryService() {
+        this(RecordLog.noop());
+    }
+
+    /**
+     * Rebuild the store from the record log and continue numbering after
+     * the highest id it has ever handed out.
+     */
+    @Autowired
+    public CategoryService(RecordLog<CategoryDto> log) {
+        this.log = log;
+        idGen.set(log.recover((id, dto) -> {
+            store.put(id, dto);
+            byName.add(sortKey(dto));
+        }));
+    }
 
     @PostConstruct
     public void logStartup() {
         System.out.println("CategoryService initialized with " + store.size() + " categories.");
     }
 
+    /** Called by ResourceService once it exists; delete() needs it for the in-use check. */
     public void setResourceService(ResourceService resourceService) {
         this.resourceService = resourceService;
     }
@@ -30,27 +58,48 @@ public class CategoryService {
     public CategoryDto create(CreateCategoryRequest req) {
         Long id = idGen.incrementAndGet();
         CategoryDto dto = new CategoryDto(id, req.name(), req.description());
-        store.put(id, dto);
+        put(dto);
         return dto;
     }
 
     public Map<String, Object> findAll(int page, int size, String sort) {
-        List<CategoryDto> list = new ArrayList<>(store.values());
-        list.sort(Comparator.comparing(CategoryDto::name, Comparator.nullsLast(String::compareToIgnoreCase)));
-
-        int from = page * size;
-        int to = Math.min(from + size, list.size());
-        List<CategoryDto> content = from >= list.size() ? List.of() : list.subList(from, to);
+        // "-name" walks the same case-insensitive index backwards
+        boolean descending = "-name".equals(sort);
+        if (sort != null && !sort.isBlank() && !sort.equals("name") && !descending) {
+            // Custom order: PagingUtil only orders the requested window
+            return PagingUtil.pageAndSort(store.values(), CategoryDto.class, page, size, sort);
+        }
+
+        // Default order: walk the sorted index instead of copying and sorting the store
+        int total = store.size();
+        List<CategoryDto> content = (descending ? byName.descendingSet() : byName).stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(k -> store.get(k.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
 
         Map<String, Object> envelope = new LinkedHashMap<>();
         envelope.put("content", content);
         envelope.put("page", page);
         envelope.put("size", size);
-        envelope.put("totalElements", list.size());
-        envelope.put("totalPages", (int) Math.ceil((double) list.size() / size));
+        envelope.put("totalElements", total);
+        envelope.put("totalPages", (int) Math.ceil((double) total / size));
         return envelope;
     }
 
+    /**
+     * Cursor mode: the page after the given cursor in name order.
+     * Seeks directly into the sorted index, so deep pages cost the same as the first.
+     */
+    public Map<String, Object> findAfter(String after, int size, boolean withTotal) {
+        return PagingUtil.keysetPage(
+                PagingUtil.after(byName, after).iterator(),
+                size,
+                k -> store.get(k.id()),
+                withTotal ? store.size() : null);
+    }
+
     public CategoryDto findById(Long id) {
         CategoryDto dto = store.get(id);
         if (dto == null) throw new NotFoundException("Category %d not found".formatted(id));
@@ -58,10 +107,10 @@ public class CategoryService {
     }
 
     public CategoryDto update(Long id, UpdateCategoryRequest req) {
-        if (!store.containsKey(id))
-            throw new NotFoundException("Category %d not found".formatted(id));
         CategoryDto dto = new CategoryDto(id, req.name(), req.description());
-        store.put(id, dto);
+        // computeIfPresent: a concurrent delete stays deleted instead of being overwritten
+        if (store.computeIfPresent(id, (k, previous) -> swap(previous, dto)) == null)
+            throw new NotFoundException("Category %d not found".formatted(id));
         return dto;
     }
 
@@ -69,11 +118,55 @@ public class CategoryService {
         if (!store.containsKey(id))
             throw new NotFoundException("Category %d not found".formatted(id));
 
-        int count = resourceService != null ? resourceService.countByCategory(id) : 0;
-        if (count > 0)
-            throw new ConflictException("Category %d is in use by %d resources".formatted(id, count));
+        // Check-and-remove under the store slot lock so it can't race attach()
+        store.computeIfPresent(id, (k, existing) -> {
+            int count = resourceService.countByCategory(id);
+            if (count > 0)
+                throw new ConflictException("Category %d is in use by %d resources".formatted(id, count));
+            log.remove(id);
+            byName.remove(sortKey(existing));
+            return null;
+        });
+    }
+
+    /**
+     * Look up a category and run an action while its store slot is locked.
+     * Used by ResourceService to record a reference atomically with respect to delete().
+     *
+     * @return the category, or null if it does not exist
+     */
+    public CategoryDto attach(Long id, Runnable onAttach) {
+        if (id == null) return null;
+        return store.computeIfPresent(id, (k, existing) -> {
+            onAttach.run();
+            return existing;
+        });
+    }
+
+    private void put(CategoryDto dto) {
+        store.compute(dto.id(), (k, previous) -> swap(previous, dto));
+    }
+
+    /** Replace a stored category, keeping the index and log in step. Call from inside a store compute. */
+    private CategoryDto swap(CategoryDto previous, CategoryDto dto) {
+        log.put(dto.id(), dto); // first, so a failed write leaves the index untouched
+        if (previous != null) byName.remove(sortKey(previous));
+        byName.add(sortKey(dto));
+        return dto;
+    }
+
+    private static SortKey sortKey(CategoryDto dto) {
+        return SortKey.of(dto.name(), dto.id());
+    }
 
-        store.remove(id);
+    /**
+     * Every category in name order, read lazily from the index.
+     * Nothing is copied, so callers can stream the whole store in constant memory.
+     */
+    public Stream<CategoryDto> stream() {
+        return byName.stream()
+                .map(k -> store.get(k.id()))
+                .filter(Objects::nonNull);
     }
 
     public boolean exists(Long id) {
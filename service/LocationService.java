@@ -3,26 +3,54 @@ package com.cop_3060.service;
 import com.cop_3060.dto.*;
 import com.cop_3060.exception.ConflictException;
 import com.cop_3060.exception.NotFoundException;
+import com.cop_3060.store.RecordLog;
+import com.cop_3060.util.PagingUtil;
+import com.cop_3060.util.SortKey;
 import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class LocationService {
 
     private final Map<Long, LocationDto> store = new ConcurrentHashMap<>();
     private final AtomicLong idGen = new AtomicLong();
+    private final NavigableSet<SortKey> byBuilding = new ConcurrentSkipListSet<>(); // keyset order for cursor paging
 
-    private ResourceService resourceService; // circular dependency resolved by setter
+    private final RecordLog<LocationDto> log;
+
+    private ResourceService resourceService; // set by ResourceService's constructor (circular dependency)
+
+    public LocationService() {
+        this(RecordLog.noop());
+    }
+
+    /**
+     * Rebuild the store from the record log and continue numbering after
+     * the highest id it has ever handed out.
+     */
+    @Autowired
+    public LocationService(RecordLog<LocationDto> log) {
+        this.log = log;
+        idGen.set(log.recover((id, dto) -> {
+            store.put(id, dto);
+            byBuilding.add(sortKey(dto));
+        }));
+    }
 
     @PostConstruct
     public void logStartup() {
         System.out.println("LocationService initialized with " + store.size() + " locations.");
     }
 
+    /** Called by ResourceService once it exists; delete() needs it for the in-use check. */
     public void setResourceService(ResourceService resourceService) {
         this.resourceService = resourceService;
     }
@@ -30,27 +58,48 @@ public class LocationService {
     public LocationDto create(CreateLocationRequest req) {
         Long id = idGen.incrementAndGet();
         LocationDto dto = new LocationDto(id, req.building(), req.room());
-        store.put(id, dto);
+        put(dto);
         return dto;
     }
 
     public Map<String, Object> findAll(int page, int size, String sort) {
-        List<LocationDto> list = new ArrayList<>(store.values());
-        list.sort(Comparator.comparing(LocationDto::building, Comparator.nullsLast(String::compareToIgnoreCase)));
-
-        int from = page * size;
-        int to = Math.min(from + size, list.size());
-        List<LocationDto> content = from >= list.size() ? List.of() : list.subList(from, to);
+        // "-building" walks the same case-insensitive index backwards
+        boolean descending = "-building".equals(sort);
+        if (sort != null && !sort.isBlank() && !sort.equals("building") && !descending) {
+            // Custom order: PagingUtil only orders the requested window
+            return PagingUtil.pageAndSort(store.values(), LocationDto.class, page, size, sort);
+        }
+
+        // Default order: walk the sorted index instead of copying and sorting the store
+        int total = store.size();
+        List<LocationDto> content = (descending ? byBuilding.descendingSet() : byBuilding).stream()
+                .skip((long) page * size)
+                .limit(size)
+                .map(k -> store.get(k.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
 
         Map<String, Object> envelope = new LinkedHashMap<>();
         envelope.put("content", content);
         envelope.put("page", page);
         envelope.put("size", size);
-        envelope.put("totalElements", list.size());
-        envelope.put("totalPages", (int) Math.ceil((double) list.size() / size));
+        envelope.put("totalElements", total);
+        envelope.put("totalPages", (int) Math.ceil((double) total / size));
         return envelope;
     }
 
+    /**
+     * Cursor mode: the page after the given cursor in building order.
+     * Seeks directly into the sorted index, so deep pages cost the same as the first.
+     */
+    public Map<String, Object> findAfter(String after, int size, boolean withTotal) {
+        return PagingUtil.keysetPage(
+                PagingUtil.after(byBuilding, after).iterator(),
+                size,
+                k -> store.get(k.id()),
+                withTotal ? store.size() : null);
+    }
+
     public LocationDto findById(Long id) {
         LocationDto dto = store.get(id);
         if (dto == null) throw new NotFoundException("Location %d not found".formatted(id));
@@ -58,10 +107,10 @@ public class LocationService {
     }
 
     public LocationDto update(Long id, UpdateLocationRequest req) {
-        if (!store.containsKey(id))
-            throw new NotFoundException("Location %d not found".formatted(id));
         LocationDto dto = new LocationDto(id, req.building(), req.room());
-        store.put(id, dto);
+        // computeIfPresent: a concurrent delete stays deleted instead of being overwritten
+        if (store.computeIfPresent(id, (k, previous) -> swap(previous, dto)) == null)
+            throw new NotFoundException("Location %d not found".formatted(id));
         return dto;
     }
 
@@ -69,11 +118,55 @@ public class LocationService {
         if (!store.containsKey(id))
             throw new NotFoundException("Location %d not found".formatted(id));
 
-        int count = resourceService != null ? resourceService.countByLocation(id) : 0;
-        if (count > 0)
-            throw new ConflictException("Location %d is in use by %d resources".formatted(id, count));
+        // Check-and-remove under the store slot lock so it can't race attach()
+        store.computeIfPresent(id, (k, existing) -> {
+            int count = resourceService.countByLocation(id);
+            if (count > 0)
+                throw new ConflictException("Location %d is in use by %d resources".formatted(id, count));
+            log.remove(id);
+            byBuilding.remove(sortKey(existing));
+            return null;
+        });
+    }
+
+    /**
+     * Look up a location and run an action while its store slot is locked.
+     * Used by ResourceService to record a reference atomically with respect to delete().
+     *
+     * @return the location, or null if it does not exist
+     */
+    public LocationDto attach(Long id, Runnable onAttach) {
+        if (id == null) return null;
+        return store.computeIfPresent(id, (k, existing) -> {
+            onAttach.run();
+            return existing;
+        });
+    }
+
+    private void put(LocationDto dto) {
+        store.compute(dto.id(), (k, previous) -> swap(previous, dto));
+    }
+
+    /** Replace a stored location, keeping the index and log in step. Call from inside a store compute. */
+    private LocationDto swap(LocationDto previous, LocationDto dto) {
+        log.put(dto.id(), dto); // first, so a failed write leaves the index untouched
+        if (previous != null) byBuilding.remove(sortKey(previous));
+        byBuilding.add(sortKey(dto));
+        return dto;
+    }
+
+    private static SortKey sortKey(LocationDto dto) {
+        return SortKey.of(dto.building(), dto.id());
+    }
 
-        store.remove(id);
+    /**
+     * Every location in building order, read lazily from the index.
+     * Nothing is copied, so callers can stream the whole store in constant memory.
+     */
+    public Stream<LocationDto> stream() {
+        return byBuilding.stream()
+                .map(k -> store.get(k.id()))
+                .filter(Objects::nonNull);
     }
 
     public boolean exists(Long id) {
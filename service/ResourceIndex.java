@@ -0,0 +1,123 @@
+package com.cop_3060.service;
+
+import com.cop_3060.dto.ResourceDto;
+import com.cop_3060.util.SortKey;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Secondary indexes over the resource store.
+ * Maintained by ResourceService on every create/update/delete so that list
+ * calls can walk a pre-sorted, pre-filtered view instead of copying and
+ * sorting the whole store:
+ *  - byName:     every resource ordered by lowercase name, then id
+ *  - byCategory: the same ordering, bucketed by lowercase category name
+ *  - byGram:     name trigram -> resource ids, used to narrow "q" searches
+ */
+class ResourceIndex {
+
+    static final int GRAM = 3;
+
+    private final NavigableSet<SortKey> byName = new ConcurrentSkipListSet<>();
+    private final Map<String, Bucket> byCategory = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> byGram = new ConcurrentHashMap<>();
+
+    /** Sorted keys for one category plus an O(1) size (skip list size() is O(n)). */
+    private record Bucket(NavigableSet<SortKey> keys, AtomicInteger size) {
+        Bucket() {
+            this(new ConcurrentSkipListSet<>(), new AtomicInteger());
+        }
+    }
+
+    /**
+     * Swap the indexed entry for a resource.
+     * Either side may be null (create / delete). Callers serialize calls per id.
+     */
+    void replace(ResourceDto previous, ResourceDto next) {
+        if (previous != null) remove(previous);
+        if (next != null) add(next);
+    }
+
+    private void add(ResourceDto dto) {
+        SortKey key = SortKey.of(dto.name(), dto.id());
+        byName.add(key);
+
+        Bucket bucket = byCategory.computeIfAbsent(categoryKey(dto), k -> new Bucket());
+        if (bucket.keys().add(key)) bucket.size().incrementAndGet();
+
+        for (String gram : grams(key.key())) {
+            byGram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(dto.id());
+        }
+    }
+
+    private void remove(ResourceDto dto) {
+        SortKey key = SortKey.of(dto.name(), dto.id());
+        byName.remove(key);
+
+        Bucket bucket = byCategory.get(categoryKey(dto));
+        if (bucket != null && bucket.keys().remove(key)) bucket.size().decrementAndGet();
+
+        for (String gram : grams(key.key())) {
+            Set<Long> ids = byGram.get(gram);
+            if (ids != null) ids.remove(dto.id());
+        }
+    }
+
+    /**
+     * All keys in name order, optionally restricted to one category.
+     * The returned set is a live, weakly consistent view.
+     */
+    NavigableSet<SortKey> sorted(String category) {
+        if (category == null) return byName;
+        Bucket bucket = byCategory.get(SortKey.normalize(category));
+        return bucket == null ? Collections.emptyNavigableSet() : bucket.keys();
+    }
+
+    /** Number of indexed resources, optionally restricted to one category. */
+    int count(String category, int storeSize) {
+        if (category == null) return storeSize;
+        Bucket bucket = byCategory.get(SortKey.normalize(category));
+        return bucket == null ? 0 : bucket.size().get();
+    }
+
+    /**
+     * Candidate ids whose names contain every trigram of the (normalized) needle.
+     * Candidates still have to be verified with a substring check.
+     *
+     * @return the candidates, or null when the needle is too short to use the index
+     */
+    Set<Long> candidates(String needle) {
+        List<String> grams = grams(needle);
+        if (grams.isEmpty()) return null;
+
+        List<Set<Long>> postings = new ArrayList<>(grams.size());
+        for (String gram : grams) {
+            Set<Long> ids = byGram.get(gram);
+            if (ids == null || ids.isEmpty()) return Set.of();
+            postings.add(ids);
+        }
+        // Intersect starting from the rarest trigram
+        postings.sort(Comparator.comparingInt(Set::size));
+        Set<Long> result = new HashSet<>(postings.get(0));
+        for (int i = 1; i < postings.size() && !result.isEmpty(); i++) {
+            result.retainAll(postings.get(i));
+        }
+        return result;
+    }
+
+    private static String categoryKey(ResourceDto dto) {
+        return SortKey.normalize(dto.category() == null ? null : dto.category().name());
+    }
+
+    private static List<String> grams(String text) {
+        if (text.length() < GRAM) return List.of();
+        Set<String> grams = new LinkedHashSet<>();
+        for (int i = 0; i + GRAM <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM));
+        }
+        return new ArrayList<>(grams);
+    }
+}
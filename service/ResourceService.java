@@ -1,29 +1,73 @@
 package com.cop_3060.service;
 
 import com.cop_3060.dto.*;
+import com.cop_3060.exception.BadRequestException;
 import com.cop_3060.exception.ConflictException;
 import com.cop_3060.exception.InvalidReferenceException;
 import com.cop_3060.exception.NotFoundException;
+import com.cop_3060.store.RecordLog;
+import com.cop_3060.util.PagingUtil;
+import com.cop_3060.util.SortKey;
 import jakarta.annotation.PostConstruct;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ResourceService {
 
     private final Map<Long, ResourceDto> store = new ConcurrentHashMap<>();
     private final AtomicLong idGen = new AtomicLong();
+    private final ResourceIndex index = new ResourceIndex();
+
+    // Number of resources pointing at each location / category, kept in step with the store
+    private final Map<Long, LongAdder> locationRefs = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> categoryRefs = new ConcurrentHashMap<>();
 
     private final LocationService locationService;
     private final CategoryService categoryService;
+    private final RecordLog<ResourceDto> log;
+
+    private Validator validator; // per-item validation for the batch endpoints; optional outside Spring
 
     public ResourceService(LocationService locationService, CategoryService categoryService) {
+        this(locationService, categoryService, RecordLog.noop());
+    }
+
+    /**
+     * Rebuild the store, indexes and reference counts from the record log and
+     * continue numbering after the highest id it has ever handed out.
+     */
+    @Autowired
+    public ResourceService(LocationService locationService, CategoryService categoryService,
+                           RecordLog<ResourceDto> log) {
         this.locationService = locationService;
         this.categoryService = categoryService;
+        this.log = log;
+        // Location/Category deletes ask us whether anything still points at them
+        locationService.setResourceService(this);
+        categoryService.setResourceService(this);
+        idGen.set(log.recover((id, dto) -> {
+            store.put(id, dto);
+            index.replace(null, dto);
+            refs(locationRefs, dto.location().id()).increment();
+            refs(categoryRefs, dto.category().id()).increment();
+        }));
+    }
+
+    @Autowired(required = false)
+    public void setValidator(Validator validator) {
+        this.validator = validator;
     }
 
     @PostConstruct
@@ -32,50 +76,121 @@ public class ResourceService {
     }
 
     public ResourceDto create(CreateResourceRequest req) {
-        if (!locationService.exists(req.locationId())) {
-            throw new InvalidReferenceException("Invalid locationId: " + req.locationId());
-        }
-        if (!categoryService.exists(req.categoryId())) {
-            throw new InvalidReferenceException("Invalid categoryId: " + req.categoryId());
-        }
-
+        References refs = acquire(req.locationId(), req.categoryId());
         Long id = idGen.incrementAndGet();
-        LocationDto loc = locationService.findById(req.locationId());
-        CategoryDto cat = categoryService.findById(req.categoryId());
-        ResourceDto dto = new ResourceDto(id, req.name(), req.description(), loc, cat);
-        store.put(id, dto);
+        ResourceDto dto = new ResourceDto(id, req.name(), req.description(), refs.location(), refs.category());
+        put(dto);
         return dto;
     }
 
     public Map<String, Object> findAll(int page, int size, String sort, String category, String q) {
-        List<ResourceDto> list = new ArrayList<>(store.values());
+        String cat = category == null || category.isBlank() ? null : category;
+        String needle = q == null || q.isBlank() ? null : SortKey.normalize(q);
 
-        if (category != null && !category.isBlank()) {
-            list = list.stream()
-                    .filter(r -> r.category().name().equalsIgnoreCase(category))
-                    .collect(Collectors.toList());
-        }
-        if (q != null && !q.isBlank()) {
-            list = list.stream()
-                    .filter(r -> r.name().toLowerCase().contains(q.toLowerCase()))
-                    .collect(Collectors.toList());
+        // Name order either way comes from the index, so "-name" is the exact reverse of "name"
+        // (case-insensitive) rather than PagingUtil's case-sensitive comparison
+        boolean descending = "-name".equals(sort);
+        if (sort != null && !sort.isBlank() && !sort.equals("name") && !descending) {
+            // Custom order: PagingUtil only orders the requested window
+            Collection<ResourceDto> matches = needle != null ? resolve(search(cat, needle))
+                    : cat != null ? resolve(index.sorted(cat).stream())
+                    : store.values();
+            return PagingUtil.pageAndSort(matches, ResourceDto.class, page, size, sort);
         }
 
-        list.sort(Comparator.comparing(ResourceDto::name, Comparator.nullsLast(String::compareToIgnoreCase)));
-
         int from = page * size;
-        int to = Math.min(from + size, list.size());
-        List<ResourceDto> content = from >= list.size() ? List.of() : list.subList(from, to);
+        List<ResourceDto> content;
+        int total;
+
+        if (needle == null) {
+            // Walk the pre-sorted index; no copy, no sort
+            total = index.count(cat, store.size());
+            NavigableSet<SortKey> keys = index.sorted(cat);
+            content = resolve((descending ? keys.descendingSet() : keys).stream().skip(from).limit(size));
+        } else {
+            List<SortKey> matches = search(cat, needle).collect(Collectors.toList());
+            if (descending) Collections.reverse(matches);
+            total = matches.size();
+            content = from >= total ? List.of() : resolve(matches.subList(from, Math.min(from + size, total)).stream());
+        }
 
         Map<String, Object> envelope = new LinkedHashMap<>();
         envelope.put("content", content);
         envelope.put("page", page);
         envelope.put("size", size);
-        envelope.put("totalElements", list.size());
-        envelope.put("totalPages", (int) Math.ceil((double) list.size() / size));
+        envelope.put("totalElements", total);
+        envelope.put("totalPages", (int) Math.ceil((double) total / size));
         return envelope;
     }
 
+    /**
+     * Cursor mode: the page after the given cursor in name order.
+     * Without q this seeks directly into the sorted (category) index; with q the
+     * trigram candidates are sorted and filtered past the cursor.
+     * The total is only computed when asked for.
+     */
+    public Map<String, Object> findAfter(String after, int size, String category, String q, boolean withTotal) {
+        String cat = category == null || category.isBlank() ? null : category;
+        String needle = q == null || q.isBlank() ? null : SortKey.normalize(q);
+
+        if (needle == null) {
+            return PagingUtil.keysetPage(
+                    PagingUtil.after(index.sorted(cat), after).iterator(),
+                    size,
+                    k -> store.get(k.id()),
+                    withTotal ? index.count(cat, store.size()) : null);
+        }
+
+        SortKey cursor = after == null || after.isBlank() ? null : SortKey.fromCursor(after);
+        Iterator<SortKey> keys = search(cat, needle)
+                .filter(k -> cursor == null || k.compareTo(cursor) > 0)
+                .iterator();
+        Integer total = withTotal ? (int) search(cat, needle).count() : null;
+        return PagingUtil.keysetPage(keys, size, k -> store.get(k.id()), total);
+    }
+
+    /**
+     * Sorted keys of resources whose name contains the needle.
+     * Uses the trigram index when the needle is long enough, otherwise
+     * filters the (already sorted) name or category index.
+     */
+    private Stream<SortKey> search(String category, String needle) {
+        Set<Long> candidates = index.candidates(needle);
+        if (candidates == null) {
+            return index.sorted(category).stream().filter(k -> k.key().contains(needle));
+        }
+        String cat = category == null ? null : SortKey.normalize(category);
+        return candidates.stream()
+                .map(store::get)
+                .filter(Objects::nonNull)
+                .filter(r -> cat == null || SortKey.normalize(r.category().name()).equals(cat))
+                .map(r -> SortKey.of(r.name(), r.id()))
+                .filter(k -> k.key().contains(needle))
+                .sorted();
+    }
+
+    private List<ResourceDto> resolve(Stream<SortKey> keys) {
+        // An id may disappear between the index read and the lookup; skip it
+        return keys.map(k -> store.get(k.id()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Every matching resource in name order, read lazily from the index.
+     * Unlike findAll, the q filter is a substring check on the sorted keys rather
+     * than a trigram lookup, so nothing is collected or sorted and callers can
+     * stream the whole store in constant memory.
+     */
+    public Stream<ResourceDto> stream(String category, String q) {
+        String cat = category == null || category.isBlank() ? null : category;
+        String needle = q == null || q.isBlank() ? null : SortKey.normalize(q);
+        return index.sorted(cat).stream()
+                .filter(k -> needle == null || k.key().contains(needle))
+                .map(k -> store.get(k.id()))
+                .filter(Objects::nonNull);
+    }
+
     public ResourceDto findById(Long id) {
         ResourceDto dto = store.get(id);
         if (dto == null) throw new NotFoundException("Resource %d not found".formatted(id));
@@ -86,35 +201,282 @@ public class ResourceService {
         if (!store.containsKey(id))
             throw new NotFoundException("Resource %d not found".formatted(id));
 
-        if (!locationService.exists(req.locationId())) {
-            throw new InvalidReferenceException("Invalid locationId: " + req.locationId());
-        }
-        if (!categoryService.exists(req.categoryId())) {
-            throw new InvalidReferenceException("Invalid categoryId: " + req.categoryId());
+        References refs = acquire(req.locationId(), req.categoryId());
+        ResourceDto updated = new ResourceDto(id, req.name(), req.description(), refs.location(), refs.category());
+        if (store.computeIfPresent(id, (k, previous) -> swap(previous, updated)) == null) {
+            // Deleted while we were resolving references
+            release(refs.location().id(), refs.category().id());
+            throw new NotFoundException("Resource %d not found".formatted(id));
         }
-
-        LocationDto loc = locationService.findById(req.locationId());
-        CategoryDto cat = categoryService.findById(req.categoryId());
-        ResourceDto updated = new ResourceDto(id, req.name(), req.description(), loc, cat);
-        store.put(id, updated);
         return updated;
     }
 
     public void delete(Long id) {
-        if (!store.containsKey(id))
+        if (!remove(id))
             throw new NotFoundException("Resource %d not found".formatted(id));
-        store.remove(id);
+    }
+
+    /**
+     * Remove a resource and release its references.
+     * Decided inside one computeIfPresent, so of two concurrent deletes exactly one reports success.
+     */
+    private boolean remove(Long id) {
+        boolean[] removed = new boolean[1];
+        store.computeIfPresent(id, (k, previous) -> {
+            removed[0] = true;
+            return swap(previous, null);
+        });
+        return removed[0];
+    }
+
+    // ---- batch operations ----
+
+    public static final int MAX_BATCH_SIZE = 10_000;
+
+    /**
+     * Create many resources in one call.
+     * Each distinct location/category is looked up and pinned once for the whole
+     * batch, and ids are allocated as one contiguous block. Items fail
+     * individually; the rest of the batch still goes through.
+     *
+     * @return envelope: results (one BatchItemResult per item, in order), succeeded, failed
+     */
+    public Map<String, Object> createAll(List<CreateResourceRequest> requests) {
+        checkBatchSize(requests);
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> valid = validate(requests, results);
+
+        BatchReferences refs = acquireAll(valid,
+                i -> requests.get(i).locationId(), i -> requests.get(i).categoryId(), results);
+
+        List<Integer> accepted = refs.accepted();
+        long firstId = idGen.getAndAdd(accepted.size()) + 1;
+        int n = 0;
+        try {
+            for (; n < accepted.size(); n++) {
+                int i = accepted.get(n);
+                CreateResourceRequest req = requests.get(i);
+                ResourceDto dto = new ResourceDto(firstId + n, req.name(), req.description(),
+                        refs.locations().get(req.locationId()), refs.categories().get(req.categoryId()));
+                put(dto);
+                results[i] = new BatchItemResult(i, 201, dto.id(), null);
+            }
+        } finally {
+            // put threw: swap gave back the failed item's references, the items after it never got stored
+            for (int rest = n + 1; rest < accepted.size(); rest++) {
+                CreateResourceRequest req = requests.get(accepted.get(rest));
+                release(req.locationId(), req.categoryId());
+            }
+        }
+        return batchEnvelope(results);
+    }
+
+    /**
+     * Update many resources in one call, resolving each distinct reference once.
+     * Items whose resource does not exist fail with 404 without affecting the others.
+     */
+    public Map<String, Object> updateAll(List<BatchUpdateResourceRequest> requests) {
+        checkBatchSize(requests);
+        BatchItemResult[] results = new BatchItemResult[requests.size()];
+        List<Integer> valid = validate(requests, results);
+
+        BatchReferences refs = acquireAll(valid,
+                i -> requests.get(i).locationId(), i -> requests.get(i).categoryId(), results);
+
+        List<Integer> accepted = refs.accepted();
+        int n = 0;
+        try {
+            for (; n < accepted.size(); n++) {
+                int i = accepted.get(n);
+                BatchUpdateResourceRequest req = requests.get(i);
+                ResourceDto updated = new ResourceDto(req.id(), req.name(), req.description(),
+                        refs.locations().get(req.locationId()), refs.categories().get(req.categoryId()));
+                if (store.computeIfPresent(req.id(), (k, previous) -> swap(previous, updated)) == null) {
+                    release(req.locationId(), req.categoryId());
+                    results[i] = new BatchItemResult(i, 404, req.id(), "Resource %d not found".formatted(req.id()));
+                } else {
+                    results[i] = new BatchItemResult(i, 200, req.id(), null);
+                }
+            }
+        } finally {
+            // As in createAll: the items after a failed swap never got stored
+            for (int rest = n + 1; rest < accepted.size(); rest++) {
+                BatchUpdateResourceRequest req = requests.get(accepted.get(rest));
+                release(req.locationId(), req.categoryId());
+            }
+        }
+        return batchEnvelope(results);
+    }
+
+    /** Delete many resources in one call; unknown ids fail individually with 404. */
+    public Map<String, Object> deleteAll(List<Long> ids) {
+        checkBatchSize(ids);
+        BatchItemResult[] results = new BatchItemResult[ids.size()];
+        for (int i = 0; i < ids.size(); i++) {
+            Long id = ids.get(i);
+            results[i] = id != null && remove(id)
+                    ? new BatchItemResult(i, 204, id, null)
+                    : new BatchItemResult(i, 404, id, "Resource %d not found".formatted(id));
+        }
+        return batchEnvelope(results);
+    }
+
+    private static void checkBatchSize(List<?> items) {
+        if (items == null || items.isEmpty())
+            throw new BadRequestException("Batch must contain at least one item");
+        if (items.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch of %d items exceeds the limit of %d".formatted(items.size(), MAX_BATCH_SIZE));
+    }
+
+    /** Bean-validate every item; failures get a 400 result. @return indexes of the valid items */
+    private <R> List<Integer> validate(List<R> requests, BatchItemResult[] results) {
+        List<Integer> valid = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            R req = requests.get(i);
+            String message = req == null ? "Item is required" : violations(req);
+            if (message == null) valid.add(i);
+            else results[i] = new BatchItemResult(i, 400, null, message);
+        }
+        return valid;
+    }
+
+    private String violations(Object req) {
+        if (validator == null) return null;
+        Set<? extends ConstraintViolation<?>> violations = validator.validate(req);
+        if (violations.isEmpty()) return null;
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+    }
+
+    /** References resolved for a batch, and the items whose references all exist. */
+    private record BatchReferences(Map<Long, LocationDto> locations,
+                                   Map<Long, CategoryDto> categories,
+                                   List<Integer> accepted) {}
+
+    /**
+     * Resolve and pin the references of a batch.
+     * Every distinct id is attached once and its count bumped by the number of
+     * items using it. Items with a missing reference get a 400 result and give
+     * back the pin they took on the other reference.
+     */
+    private BatchReferences acquireAll(List<Integer> items,
+                                       IntFunction<Long> locationOf,
+                                       IntFunction<Long> categoryOf,
+                                       BatchItemResult[] results) {
+        Map<Long, Integer> locationUses = new HashMap<>();
+        Map<Long, Integer> categoryUses = new HashMap<>();
+        for (int i : items) {
+            locationUses.merge(locationOf.apply(i), 1, Integer::sum);
+            categoryUses.merge(categoryOf.apply(i), 1, Integer::sum);
+        }
+        Map<Long, LocationDto> locations = attachAll(locationUses, locationService::attach, locationRefs);
+        Map<Long, CategoryDto> categories = attachAll(categoryUses, categoryService::attach, categoryRefs);
+
+        List<Integer> accepted = new ArrayList<>(items.size());
+        for (int i : items) {
+            Long locationId = locationOf.apply(i);
+            Long categoryId = categoryOf.apply(i);
+            boolean hasLocation = locations.containsKey(locationId);
+            boolean hasCategory = categories.containsKey(categoryId);
+            if (hasLocation && hasCategory) {
+                accepted.add(i);
+                continue;
+            }
+            if (hasLocation) refs(locationRefs, locationId).decrement();
+            if (hasCategory) refs(categoryRefs, categoryId).decrement();
+            String message = hasLocation ? "Invalid categoryId: " + categoryId : "Invalid locationId: " + locationId;
+            results[i] = new BatchItemResult(i, 400, null, message);
+        }
+        return new BatchReferences(locations, categories, accepted);
+    }
+
+    private static <D> Map<Long, D> attachAll(Map<Long, Integer> uses,
+                                              BiFunction<Long, Runnable, D> attach,
+                                              Map<Long, LongAdder> counts) {
+        Map<Long, D> resolved = new HashMap<>();
+        uses.forEach((id, n) -> {
+            D dto = attach.apply(id, () -> refs(counts, id).add(n));
+            if (dto != null) resolved.put(id, dto);
+        });
+        return resolved;
+    }
+
+    private static Map<String, Object> batchEnvelope(BatchItemResult[] results) {
+        int failed = 0;
+        for (BatchItemResult r : results) {
+            if (r.status() >= 400) failed++;
+        }
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("results", Arrays.asList(results));
+        envelope.put("succeeded", results.length - failed);
+        envelope.put("failed", failed);
+        return envelope;
+    }
+
+    /** Resolved location and category for a create or update. */
+    private record References(LocationDto location, CategoryDto category) {}
+
+    /**
+     * Resolve and pin the referenced location and category.
+     * Each reference count is bumped while the target's store slot is locked,
+     * so a concurrent Location/Category delete either sees the new reference
+     * or has already removed the target (and we fail with an invalid reference).
+     */
+    private References acquire(Long locationId, Long categoryId) {
+        LocationDto loc = locationService.attach(locationId, () -> refs(locationRefs, locationId).increment());
+        if (loc == null) {
+            throw new InvalidReferenceException("Invalid locationId: " + locationId);
+        }
+        CategoryDto cat = categoryService.attach(categoryId, () -> refs(categoryRefs, categoryId).increment());
+        if (cat == null) {
+            refs(locationRefs, locationId).decrement();
+            throw new InvalidReferenceException("Invalid categoryId: " + categoryId);
+        }
+        return new References(loc, cat);
+    }
+
+    private void release(Long locationId, Long categoryId) {
+        refs(locationRefs, locationId).decrement();
+        refs(categoryRefs, categoryId).decrement();
+    }
+
+    private static LongAdder refs(Map<Long, LongAdder> counts, Long id) {
+        return counts.computeIfAbsent(id, k -> new LongAdder());
+    }
+
+    /**
+     * Replace a stored resource, keeping the log, indexes and reference counts in step.
+     * Must be called from inside a store compute so writes to one id are serialized.
+     */
+    private ResourceDto swap(ResourceDto previous, ResourceDto next) {
+        boolean logged = false;
+        try {
+            if (next != null) log.put(next.id(), next);
+            else if (previous != null) log.remove(previous.id());
+            logged = true;
+        } finally {
+            // The compute is abandoned, so the references acquired for next are never stored
+            if (!logged && next != null) release(next.location().id(), next.category().id());
+        }
+        index.replace(previous, next);
+        if (previous != null) release(previous.location().id(), previous.category().id());
+        return next;
+    }
+
+    /** Store a new resource; its references must already be acquired. */
+    private void put(ResourceDto dto) {
+        store.compute(dto.id(), (k, previous) -> swap(previous, dto));
     }
 
     public int countByLocation(Long locationId) {
-        return (int) store.values().stream()
-                .filter(r -> r.location().id().equals(locationId))
-                .count();
+        LongAdder count = locationRefs.get(locationId);
+        return count == null ? 0 : count.intValue();
     }
 
     public int countByCategory(Long categoryId) {
-        return (int) store.values().stream()
-                .filter(r -> r.category().id().equals(categoryId))
-                .count();
+        LongAdder count = categoryRefs.get(categoryId);
+        return count == null ? 0 : count.intValue();
     }
 }
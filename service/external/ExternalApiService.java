@@ -1 +1,134 @@
+package com.cameron.cop3060.service.external;
 
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.dto.external.TMDBSearchResponseDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.entity.ExternalMoviePayload;
+import com.cameron.cop3060.exception.ResourceNotFoundException;
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import com.cameron.cop3060.repository.ExternalMoviePayloadRepository;
+import com.cameron.cop3060.repository.ExternalMovieSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Entry point for external movie data used by ExternalApiController
+ * 
+ * @author Cameron Brown
+ */
+@Service
+public class ExternalApiService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final TMDBService tmdbService;
+    private final TieredMovieCache movieCache;
+    private final ExternalMovieCacheRepository cacheRepository;
+    private final ExternalMoviePayloadRepository payloadRepository;
+
+    private final MovieGenreIndex genreIndex;
+
+    public ExternalApiService(TMDBService tmdbService, TieredMovieCache movieCache,
+                              ExternalMovieCacheRepository cacheRepository,
+                              ExternalMoviePayloadRepository payloadRepository,
+                              MovieGenreIndex genreIndex) {
+        this.tmdbService = tmdbService;
+        this.movieCache = movieCache;
+        this.cacheRepository = cacheRepository;
+        this.payloadRepository = payloadRepository;
+        this.genreIndex = genreIndex;
+    }
+
+    /**
+     * Movie details, served from the in-process cache, then the cache table, then TMDB
+     * The endpoint keeps TMDB's response shape, so the cached row is mapped back to it
+     */
+    public Mono<TMDBMovieDTO> getMovie(long tmdbId) {
+        return movieCache.getMovie(tmdbId).map(TMDBMovieMapper::toDto);
+    }
+
+    public Mono<TMDBSearchResponseDTO> searchMovies(String query, int page) {
+        return tmdbService.searchMovies(query, page);
+    }
+
+    public Mono<TMDBSearchResponseDTO> getPopularMovies(int page) {
+        return tmdbService.getPopularMovies(page);
+    }
+
+    /**
+     * How many TMDB lookups were collapsed into an in-flight one
+     */
+    public Map<String, Map<String, Long>> getSingleFlightStats() {
+        return tmdbService.singleFlightStats();
+    }
+
+    /**
+     * Cached row for a movie, read on a worker thread (JPA is blocking)
+     */
+    public Mono<ExternalMovieCache> getCachedMovie(long tmdbId) {
+        return Mono.fromCallable(() -> cacheRepository.findByTmdbId(tmdbId)
+                        .orElseThrow(() -> new ResourceNotFoundException("ExternalMovieCache", "tmdbId", tmdbId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Page of cached movies (summary columns only), optionally filtered by title
+     */
+    public Mono<Page<ExternalMovieSummary>> listCachedMovies(String query, int page, int size) {
+        PageRequest pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "fetchCount").and(Sort.by("id")));
+        return Mono.fromCallable(() -> query == null || query.isBlank()
+                        ? cacheRepository.findBy(pageable)
+                        : cacheRepository.findByTitleContainingIgnoreCase(query.trim(), pageable))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Raw TMDB response stored for a movie, decompressed on read
+     */
+    public Mono<String> getRawResponse(long tmdbId) {
+        return Mono.fromCallable(() -> payloadRepository.findByTmdbId(tmdbId)
+                        .map(ExternalMoviePayload::getApiResponse)
+                        .orElseThrow(() -> new ResourceNotFoundException("ExternalMoviePayload", "tmdbId", tmdbId)))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Cached movies matching a genre/year/rating filter
+     * The filter runs on MovieGenreIndex; only the returned page is read from the table
+     */
+    public Mono<Map<String, Object>> findCachedByGenre(MovieGenreIndex.Query query, int limit) {
+        MovieGenreIndex.Match match = genreIndex.query(query, Math.min(Math.max(limit, 1), MAX_PAGE_SIZE));
+        if (match.tmdbIds().isEmpty()) {
+            return Mono.just(genreResult(match, List.of()));
+        }
+        return Mono.fromCallable(() -> {
+                    Map<Long, ExternalMovieSummary> rows = cacheRepository.findSummariesByTmdbIdIn(match.tmdbIds()).stream()
+                            .collect(Collectors.toMap(ExternalMovieSummary::getTmdbId, Function.identity()));
+                    List<ExternalMovieSummary> movies = match.tmdbIds().stream()
+                            .map(rows::get)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    return genreResult(match, movies);
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static Map<String, Object> genreResult(MovieGenreIndex.Match match, List<ExternalMovieSummary> movies) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("total", match.total());
+        body.put("movies", movies);
+        return body;
+    }
+}
@@ -0,0 +1,29 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.entity.ExternalMovieCache;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * external_movie_cache rows written by one ExternalMovieCacheWriter batch
+ * 
+ * Published inside the batch transaction; listeners that must only see
+ * committed rows use {@code @TransactionalEventListener}. The indexed
+ * fields are copied when the event is built, so later changes to the
+ * entities don't leak in.
+ * 
+ * @author Cameron Brown
+ */
+public record ExternalMovieCacheSavedEvent(List<Movie> movies) {
+
+    public record Movie(long tmdbId, int[] genreIds, Integer releaseYear, Double voteAverage) {}
+
+    static ExternalMovieCacheSavedEvent of(Iterable<ExternalMovieCache> rows) {
+        List<Movie> movies = new ArrayList<>();
+        for (ExternalMovieCache row : rows) {
+            movies.add(new Movie(row.getTmdbId(), row.getGenreIdsArray(), row.getReleaseYear(), row.getVoteAverage()));
+        }
+        return new ExternalMovieCacheSavedEvent(List.copyOf(movies));
+    }
+}
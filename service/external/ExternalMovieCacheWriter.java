@@ -0,0 +1,164 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.entity.ExternalMoviePayload;
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import com.cameron.cop3060.repository.ExternalMoviePayloadRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Batches ExternalMovieCache upserts coming from the TMDB client
+ * 
+ * Responses are queued instead of written on the calling (event loop) thread.
+ * Every {@code tmdb.cache.batch-size} rows, or after {@code tmdb.cache.batch-window-ms},
+ * one batch is written on a boundedElastic worker: a single findByTmdbIdIn
+ * lookup, then saveAll in one transaction. Raw detail responses go to
+ * external_movie_payload (compressed) in the same transaction. Each batch
+ * publishes an ExternalMovieCacheSavedEvent (MovieGenreIndex applies it
+ * after commit).
+ * 
+ * @author Cameron Brown
+ */
+@Component
+public class ExternalMovieCacheWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ExternalMovieCacheWriter.class);
+
+    private final ExternalMovieCacheRepository repository;
+    private final ExternalMoviePayloadRepository payloadRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher events;
+    private final int ttlHours;
+
+    private final Sinks.Many<PendingUpsert> queue = Sinks.many().unicast().onBackpressureBuffer();
+
+    /** One queued response and whoever is waiting for its row */
+    private record PendingUpsert(TMDBMovieDTO movie, boolean detailed, String rawJson,
+                                 CompletableFuture<ExternalMovieCache> done) {}
+
+    public ExternalMovieCacheWriter(ExternalMovieCacheRepository repository,
+                                    ExternalMoviePayloadRepository payloadRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    ApplicationEventPublisher events,
+                                    @Value("${tmdb.cache.batch-size:50}") int batchSize,
+                                    @Value("${tmdb.cache.batch-window-ms:200}") long batchWindowMillis,
+                                    @Value("${tmdb.cache.ttl-hours:24}") int ttlHours) {
+        this.repository = repository;
+        this.payloadRepository = payloadRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.events = events;
+        this.ttlHours = ttlHours;
+
+        queue.asFlux()
+                .bufferTimeout(batchSize, Duration.ofMillis(batchWindowMillis))
+                .publishOn(Schedulers.boundedElastic())
+                .subscribe(this::writeBatch);
+    }
+
+    /**
+     * Queue a movie for upsert
+     * 
+     * @return the saved row, once its batch has been committed
+     */
+    public Mono<ExternalMovieCache> upsert(TMDBMovieDTO movie, boolean detailed, String rawJson) {
+        if (movie == null || movie.getId() == null) {
+            return Mono.empty();
+        }
+        CompletableFuture<ExternalMovieCache> done = new CompletableFuture<>();
+        // Emitters race on the sink; busy-loop briefly instead of failing on FAIL_NON_SERIALIZED
+        queue.emitNext(new PendingUpsert(movie, detailed, rawJson, done),
+                Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        // A cancelled caller must not cancel the write
+        return Mono.fromFuture(done, true);
+    }
+
+    /** Queue many movies (e.g. one search results page) for upsert */
+    public Mono<List<ExternalMovieCache>> upsertAll(List<TMDBMovieDTO> movies) {
+        if (movies == null || movies.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        return Flux.fromIterable(movies)
+                .flatMapSequential(m -> upsert(m, false, null))
+                .collectList();
+    }
+
+    private void writeBatch(List<PendingUpsert> batch) {
+        try {
+            Map<Long, ExternalMovieCache> saved = transactionTemplate.execute(status -> save(batch));
+            for (PendingUpsert p : batch) {
+                p.done().complete(saved.get(p.movie().getId()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to upsert {} external_movie_cache rows: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.done().completeExceptionally(e));
+        }
+    }
+
+    private Map<Long, ExternalMovieCache> save(List<PendingUpsert> batch) {
+        Set<Long> ids = batch.stream().map(p -> p.movie().getId()).collect(Collectors.toSet());
+        Map<Long, ExternalMovieCache> rows = repository.findByTmdbIdIn(ids).stream()
+                .collect(Collectors.toMap(ExternalMovieCache::getTmdbId, Function.identity()));
+
+        // Same movie twice in one batch: apply in arrival order to one row
+        Map<Long, String> rawJson = new HashMap<>();
+        for (PendingUpsert p : batch) {
+            ExternalMovieCache row = rows.computeIfAbsent(p.movie().getId(), id -> new ExternalMovieCache());
+            TMDBMovieMapper.apply(row, p.movie(), p.detailed(), ttlHours);
+            if (p.detailed() && p.rawJson() != null) {
+                rawJson.put(p.movie().getId(), p.rawJson());
+            }
+        }
+        Map<Long, ExternalMovieCache> saved = repository.saveAll(rows.values()).stream()
+                .collect(Collectors.toMap(ExternalMovieCache::getTmdbId, Function.identity()));
+        savePayloads(saved, rawJson);
+        events.publishEvent(ExternalMovieCacheSavedEvent.of(saved.values()));
+        return saved;
+    }
+
+    /**
+     * Insert or replace the raw response of each detailed fetch (keyed by TMDB id)
+     */
+    private void savePayloads(Map<Long, ExternalMovieCache> saved, Map<Long, String> rawJson) {
+        if (rawJson.isEmpty()) {
+            return;
+        }
+        List<Long> rowIds = rawJson.keySet().stream().map(tmdbId -> saved.get(tmdbId).getId()).toList();
+        Map<Long, ExternalMoviePayload> payloads = payloadRepository.findAllById(rowIds).stream()
+                .collect(Collectors.toMap(ExternalMoviePayload::getId, Function.identity()));
+        List<ExternalMoviePayload> toSave = new ArrayList<>(rawJson.size());
+        rawJson.forEach((tmdbId, json) -> {
+            ExternalMovieCache row = saved.get(tmdbId);
+            ExternalMoviePayload payload = payloads.get(row.getId());
+            if (payload == null) {
+                payload = new ExternalMoviePayload(row, json);
+            } else {
+                payload.setApiResponse(json);
+            }
+            toSave.add(payload);
+        });
+        payloadRepository.saveAll(toSave);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.tryEmitComplete(); // flushes the last partial batch
+    }
+}
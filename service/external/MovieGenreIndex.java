@@ -0,0 +1,293 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import com.cameron.cop3060.repository.ExternalMovieSummary;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory genre/year/rating index over external_movie_cache
+ * 
+ * Every cached movie gets a dense slot number. Each TMDB genre id and each
+ * release year maps to a bitset of slots (java.util.BitSet, i.e. long[]
+ * words), and vote averages sit in a float array by slot. A query is then a
+ * few word-wise AND/OR/ANDNOT passes plus one scan over the surviving bits,
+ * which takes microseconds for tens of thousands of movies and never
+ * touches the database or re-parses genre_ids.
+ * 
+ * The index is built from the table once the application is ready and kept
+ * current from ExternalMovieCacheSavedEvent once each cache write commits.
+ * Freed slots are reused.
+ * 
+ * @author Cameron Brown
+ */
+@Component
+public class MovieGenreIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieGenreIndex.class);
+
+    private static final int LOAD_PAGE = 1000;
+    private static final short NO_YEAR = 0;
+
+    private final ExternalMovieCacheRepository repository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Integer> slotByTmdbId = new HashMap<>();
+    private final Map<Integer, BitSet> byGenre = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> byYear = new TreeMap<>();
+    private final BitSet live = new BitSet();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private long[] tmdbIds = new long[1024];
+    private short[] years = new short[1024];
+    private float[] votes = new float[1024];
+    private int nextSlot;
+
+    /**
+     * Genre filter plus optional ranges; null or empty parts are ignored
+     *
+     * @param allGenres  movie has every one of these genres
+     * @param anyGenres  movie has at least one of these genres
+     * @param noneGenres movie has none of these genres
+     */
+    public record Query(Set<Integer> allGenres, Set<Integer> anyGenres, Set<Integer> noneGenres,
+                        Integer yearFrom, Integer yearTo, Double minVote, Double maxVote) {}
+
+    /** Matching TMDB ids (up to the limit, in slot order) and the full match count */
+    public record Match(int total, List<Long> tmdbIds) {}
+
+    public MovieGenreIndex(ExternalMovieCacheRepository repository) {
+        this.repository = repository;
+    }
+
+    /**
+     * Build the index from the table in id-ordered pages
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long afterId = 0;
+        int loaded = 0;
+        List<ExternalMovieSummary> page;
+        do {
+            page = repository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, LOAD_PAGE));
+            lock.writeLock().lock();
+            try {
+                for (ExternalMovieSummary row : page) {
+                    // A listener update that landed while loading is newer than this read
+                    if (!slotByTmdbId.containsKey(row.getTmdbId())) {
+                        index(row.getTmdbId(), parseGenres(row.getGenreIds()), row.getReleaseYear(), row.getVoteAverage());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            loaded += page.size();
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == LOAD_PAGE);
+        log.info("Indexed genres of {} cached movies", loaded);
+    }
+
+    /**
+     * Add or replace one movie
+     */
+    public void put(long tmdbId, int[] genreIds, Integer releaseYear, Double voteAverage) {
+        lock.writeLock().lock();
+        try {
+            index(tmdbId, genreIds, releaseYear, voteAverage);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Apply a committed cache batch (also runs when published outside a transaction)
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSaved(ExternalMovieCacheSavedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (ExternalMovieCacheSavedEvent.Movie movie : event.movies()) {
+                index(movie.tmdbId(), movie.genreIds(), movie.releaseYear(), movie.voteAverage());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop one movie; its slot is reused by the next new movie
+     */
+    public void remove(long tmdbId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotByTmdbId.remove(tmdbId);
+            if (slot != null) {
+                clear(slot);
+                live.clear(slot);
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Match query(Query query, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet result = genreMatches(query);
+            if (query.yearFrom() != null || query.yearTo() != null) {
+                result.and(yearMatches(query.yearFrom(), query.yearTo()));
+            }
+
+            boolean voteFilter = query.minVote() != null || query.maxVote() != null;
+            double min = query.minVote() == null ? Double.NEGATIVE_INFINITY : query.minVote();
+            double max = query.maxVote() == null ? Double.POSITIVE_INFINITY : query.maxVote();
+            int total = 0;
+            List<Long> ids = new ArrayList<>(Math.min(limit, 1024));
+            for (int slot = result.nextSetBit(0); slot >= 0; slot = result.nextSetBit(slot + 1)) {
+                // NaN (no rating) fails both comparisons
+                if (voteFilter && !(votes[slot] >= min && votes[slot] <= max)) {
+                    continue;
+                }
+                if (total++ < limit) {
+                    ids.add(tmdbIds[slot]);
+                }
+            }
+            return new Match(total, ids);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByTmdbId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet genreMatches(Query query) {
+        BitSet result;
+        if (isEmpty(query.allGenres())) {
+            result = (BitSet) live.clone();
+        } else {
+            result = null;
+            for (Integer genre : query.allGenres()) {
+                BitSet slots = byGenre.get(genre);
+                if (slots == null) {
+                    return new BitSet();
+                }
+                if (result == null) {
+                    result = (BitSet) slots.clone();
+                } else {
+                    result.and(slots);
+                }
+            }
+        }
+        if (!isEmpty(query.anyGenres())) {
+            BitSet any = new BitSet();
+            for (Integer genre : query.anyGenres()) {
+                BitSet slots = byGenre.get(genre);
+                if (slots != null) {
+                    any.or(slots);
+                }
+            }
+            result.and(any);
+        }
+        if (!isEmpty(query.noneGenres())) {
+            for (Integer genre : query.noneGenres()) {
+                BitSet slots = byGenre.get(genre);
+                if (slots != null) {
+                    result.andNot(slots);
+                }
+            }
+        }
+        return result;
+    }
+
+    private BitSet yearMatches(Integer from, Integer to) {
+        BitSet result = new BitSet();
+        int lo = from == null ? Integer.MIN_VALUE : from;
+        int hi = to == null ? Integer.MAX_VALUE : to;
+        if (lo <= hi) {
+            byYear.subMap(lo, true, hi, true).values().forEach(result::or);
+        }
+        return result;
+    }
+
+    private void index(long tmdbId, int[] genreIds, Integer releaseYear, Double voteAverage) {
+        Integer slot = slotByTmdbId.get(tmdbId);
+        if (slot != null) {
+            clear(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slotByTmdbId.put(tmdbId, slot);
+            live.set(slot);
+        }
+        tmdbIds[slot] = tmdbId;
+        for (int genre : genreIds) {
+            if (genre > 0) {
+                byGenre.computeIfAbsent(genre, g -> new BitSet()).set(slot);
+            }
+        }
+        years[slot] = releaseYear == null ? NO_YEAR : releaseYear.shortValue();
+        if (releaseYear != null) {
+            byYear.computeIfAbsent(releaseYear, y -> new BitSet()).set(slot);
+        }
+        votes[slot] = voteAverage == null ? Float.NaN : voteAverage.floatValue();
+    }
+
+    /** Remove a slot from every genre and year bitset */
+    private void clear(int slot) {
+        for (BitSet slots : byGenre.values()) {
+            slots.clear(slot);
+        }
+        if (years[slot] != NO_YEAR) {
+            BitSet slots = byYear.get((int) years[slot]);
+            if (slots != null) {
+                slots.clear(slot);
+            }
+        }
+        years[slot] = NO_YEAR;
+        votes[slot] = Float.NaN;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > tmdbIds.length) {
+            int grown = Math.max(size, tmdbIds.length * 2);
+            tmdbIds = Arrays.copyOf(tmdbIds, grown);
+            years = Arrays.copyOf(years, grown);
+            votes = Arrays.copyOf(votes, grown);
+        }
+    }
+
+    /** Parse a genre_ids column ("28,12,878") once, skipping junk */
+    static int[] parseGenres(String genreIds) {
+        if (genreIds == null || genreIds.isBlank()) {
+            return new int[0];
+        }
+        return Arrays.stream(genreIds.split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty() && s.chars().allMatch(Character::isDigit))
+                .mapToInt(Integer::parseInt)
+                .toArray();
+    }
+
+    private static boolean isEmpty(Set<Integer> set) {
+        return set == null || set.isEmpty();
+    }
+}
@@ -0,0 +1,164 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.entity.SyncCheckpoint;
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import com.cameron.cop3060.repository.ExternalMovieSummary;
+import com.cameron.cop3060.repository.SyncCheckpointRepository;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.EstimationProbe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background refresh of external_movie_cache rows from TMDB
+ *
+ * Runs on {@code api.sync.cron} when {@code api.sync.enabled=true}. Each run
+ * walks rows expiring before now + lookahead in (expires_at, id) keyset
+ * chunks (summary columns only), so the scan uses idx_cache_expires and
+ * never re-reads rows. Within a chunk the most requested movies
+ * (fetch_count) go first. Refreshed rows are upserted through the batching
+ * cache writer, and the cursor is saved as a
+ * SyncCheckpoint after every chunk.
+ *
+ * The job only spends rate limit tokens while more than
+ * {@code api.sync.token-reserve} are left for user traffic, and stops after
+ * {@code api.sync.max-rows-per-run} rows. A run cut short by a restart or by
+ * that cap continues from its checkpoint on the next tick.
+ *
+ * @author Cameron Brown
+ */
+@Component
+@ConditionalOnProperty(name = "api.sync.enabled", havingValue = "true")
+public class MovieSyncJob {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSyncJob.class);
+
+    static final String JOB_NAME = "tmdb-movie-refresh";
+    private static final LocalDateTime CURSOR_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ExternalMovieCacheRepository cacheRepository;
+    private final SyncCheckpointRepository checkpointRepository;
+    private final TMDBService tmdbService;
+    private final Bucket rateLimiter;
+
+    private final int chunkSize;
+    private final int concurrency;
+    private final int maxRowsPerRun;
+    private final long tokenReserve;
+    private final Duration lookahead;
+    private final Duration refreshTimeout;
+
+    public MovieSyncJob(ExternalMovieCacheRepository cacheRepository,
+                        SyncCheckpointRepository checkpointRepository,
+                        TMDBService tmdbService,
+                        @Qualifier("tmdbRateLimiter") Bucket rateLimiter,
+                        @Value("${api.sync.chunk-size:100}") int chunkSize,
+                        @Value("${api.sync.concurrency:4}") int concurrency,
+                        @Value("${api.sync.max-rows-per-run:1000}") int maxRowsPerRun,
+                        @Value("${api.sync.token-reserve:10}") long tokenReserve,
+                        @Value("${api.sync.lookahead-minutes:60}") long lookaheadMinutes,
+                        @Value("${tmdb.single-flight.wait-timeout-ms:20000}") long refreshTimeoutMillis) {
+        this.cacheRepository = cacheRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.tmdbService = tmdbService;
+        this.rateLimiter = rateLimiter;
+        this.chunkSize = chunkSize;
+        this.concurrency = concurrency;
+        this.maxRowsPerRun = maxRowsPerRun;
+        this.tokenReserve = tokenReserve;
+        this.lookahead = Duration.ofMinutes(lookaheadMinutes);
+        this.refreshTimeout = Duration.ofMillis(refreshTimeoutMillis);
+    }
+
+    @Scheduled(cron = "${api.sync.cron}")
+    public void run() {
+        SyncCheckpoint checkpoint = checkpointRepository.findById(JOB_NAME)
+                .orElseGet(() -> new SyncCheckpoint(JOB_NAME));
+        if (checkpoint.isRunning()) {
+            log.info("Resuming {} from {}", JOB_NAME, checkpoint);
+        } else {
+            checkpoint.startRun(LocalDateTime.now().plus(lookahead), CURSOR_START);
+        }
+        checkpoint = checkpointRepository.save(checkpoint);
+
+        int budget = maxRowsPerRun;
+        while (budget > 0) {
+            List<ExternalMovieSummary> chunk = cacheRepository.findExpiringAfter(
+                    checkpoint.getHorizon(), checkpoint.getLastExpiresAt(), checkpoint.getLastId(),
+                    PageRequest.of(0, Math.min(chunkSize, budget)));
+            if (chunk.isEmpty()) {
+                checkpoint.setStatus(SyncCheckpoint.Status.COMPLETED);
+                checkpointRepository.save(checkpoint);
+                log.info("Finished {}: {}", JOB_NAME, checkpoint);
+                return;
+            }
+
+            int refreshed = refresh(chunk);
+            ExternalMovieSummary last = chunk.get(chunk.size() - 1);
+            checkpoint.advance(last.getExpiresAt(), last.getId(), chunk.size(), refreshed);
+            checkpoint = checkpointRepository.save(checkpoint);
+            budget -= chunk.size();
+        }
+        log.info("Paused {} after {} rows this run; continuing next tick: {}", JOB_NAME, maxRowsPerRun, checkpoint);
+    }
+
+    /**
+     * Refresh one chunk, most requested first
+     *
+     * @return how many rows were refreshed
+     */
+    private int refresh(List<ExternalMovieSummary> chunk) {
+        List<Long> ids = chunk.stream()
+                .sorted(Comparator.comparing(ExternalMovieSummary::getFetchCount,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .map(ExternalMovieSummary::getTmdbId)
+                .toList();
+
+        int refreshed = 0;
+        for (int from = 0; from < ids.size(); from += concurrency) {
+            List<Long> group = ids.subList(from, Math.min(from + concurrency, ids.size()));
+            awaitSpareTokens(group.size());
+            Long count = Flux.fromIterable(group)
+                    .flatMap(id -> tmdbService.refreshMovie(id)
+                            .doOnError(e -> log.warn("Sync could not refresh TMDB movie {}: {}", id, e.getMessage()))
+                            .onErrorResume(e -> Mono.empty()))
+                    .count()
+                    .block(refreshTimeout);
+            refreshed += count == null ? 0 : count.intValue();
+        }
+        return refreshed;
+    }
+
+    /**
+     * Hold the sync back (on the scheduler thread) until the bucket can cover
+     * the next group on top of the reserve kept for user requests
+     */
+    private void awaitSpareTokens(int needed) {
+        EstimationProbe probe;
+        while (!(probe = rateLimiter.estimateAbilityToConsume(tokenReserve + needed)).canBeConsumed()) {
+            if (probe.getNanosToWaitForRefill() == Long.MAX_VALUE) {
+                throw new IllegalStateException("api.sync.token-reserve + api.sync.concurrency exceed the TMDB bucket capacity");
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(probe.getNanosToWaitForRefill());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Sync interrupted", e);
+            }
+        }
+    }
+}
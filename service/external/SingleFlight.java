@@ -0,0 +1,139 @@
+package com.cameron.cop3060.service.external;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * In-flight request table: concurrent calls for the same key share one execution
+ *
+ * The first caller for a key starts the loader; callers arriving while it runs
+ * subscribe to the same pending result instead of starting their own. The entry
+ * is removed before the result is handed out, so later calls start fresh, and
+ * the result is kept for anyone who joined just before the end: one execution
+ * per entry, however late a waiter subscribes.
+ *
+ * Cancellation and timeouts are per waiter: a waiter that cancels, or gives up
+ * after {@code waiterTimeout} (TimeoutException), leaves the others untouched.
+ * The shared execution itself is cancelled only when every waiter has left.
+ *
+ * @author Cameron Brown
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight> inFlight = new ConcurrentHashMap<>();
+    private final Duration waiterTimeout;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder collapsed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder cancellations = new LongAdder();
+
+    public SingleFlight(Duration waiterTimeout) {
+        this.waiterTimeout = waiterTimeout;
+    }
+
+    /**
+     * Run {@code loader} for {@code key}, or join the execution already running for it
+     */
+    public Mono<V> execute(K key, Supplier<Mono<V>> loader) {
+        return Mono.defer(() -> {
+            calls.increment();
+            boolean[] leader = {false};
+            // Joining and the last waiter's cancel (Flight.leave) both run under the map's lock for the key
+            Flight flight = inFlight.compute(key, (k, current) -> {
+                if (current == null) {
+                    leader[0] = true;
+                    current = new Flight(k);
+                }
+                current.waiters.incrementAndGet();
+                return current;
+            });
+            if (leader[0]) {
+                executions.increment();
+                flight.start(loader);
+            } else {
+                collapsed.increment();
+            }
+
+            return flight.result.asMono()
+                    .doFinally(signal -> flight.leave())
+                    .timeout(waiterTimeout)
+                    .doOnError(TimeoutException.class, e -> timeouts.increment())
+                    .doOnCancel(cancellations::increment);
+        });
+    }
+
+    /** One shared execution and the waiters still interested in it */
+    private final class Flight {
+        private final K key;
+        private final Sinks.One<V> result = Sinks.one();
+        private final AtomicInteger waiters = new AtomicInteger();
+        private volatile Disposable execution;
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        void start(Supplier<Mono<V>> loader) {
+            // Leave the table first, then publish: a caller that still finds this entry gets the result
+            execution = Mono.defer(loader).subscribe(
+                    value -> {
+                        inFlight.remove(key, this);
+                        result.tryEmitValue(value);
+                    },
+                    error -> {
+                        inFlight.remove(key, this);
+                        result.tryEmitError(error);
+                    },
+                    () -> {
+                        inFlight.remove(key, this);
+                        result.tryEmitEmpty(); // no-op after a value
+                    });
+        }
+
+        /** A waiter finished or gave up; the last one to give up cancels the execution */
+        void leave() {
+            if (waiters.decrementAndGet() > 0) {
+                return;
+            }
+            boolean[] abandoned = {false};
+            inFlight.computeIfPresent(key, (k, current) -> {
+                if (current == this && waiters.get() == 0) {
+                    abandoned[0] = true;
+                    return null;
+                }
+                return current;
+            });
+            Disposable running = execution;
+            if (abandoned[0] && running != null) {
+                running.dispose();
+            }
+        }
+    }
+
+    /**
+     * Counters since startup; {@code collapsed} is the number of calls that did
+     * not start their own execution
+     */
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("calls", calls.sum());
+        stats.put("executions", executions.sum());
+        stats.put("collapsed", collapsed.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("cancellations", cancellations.sum());
+        stats.put("inFlight", (long) inFlight.size());
+        return stats;
+    }
+}
@@ -0,0 +1,147 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Copies TMDB API responses onto ExternalMovieCache rows, and rows back
+ * into the API's DTO
+ * 
+ * @author Cameron Brown
+ */
+final class TMDBMovieMapper {
+
+    private static final int MAX_OVERVIEW = 5000;
+
+    private TMDBMovieMapper() {}
+
+    /**
+     * Apply a TMDB response to a new or existing cache row.
+     * A summary (search/list result) never clears fields that an earlier
+     * detailed fetch filled in.
+     */
+    static void apply(ExternalMovieCache row, TMDBMovieDTO dto, boolean detailed, int ttlHours) {
+        row.setTmdbId(dto.getId());
+        row.setTitle(firstNonBlank(dto.getTitle(), dto.getOriginalTitle(), "Untitled"));
+        row.setOriginalTitle(truncate(dto.getOriginalTitle(), 300));
+        row.setOverview(truncate(dto.getOverview(), MAX_OVERVIEW));
+        row.setPosterPath(dto.getPosterPath());
+        row.setBackdropPath(dto.getBackdropPath());
+        row.setReleaseDate(dto.getReleaseDate());
+        row.setReleaseYear(releaseYear(dto.getReleaseDate()));
+        row.setVoteAverage(dto.getVoteAverage());
+        row.setVoteCount(dto.getVoteCount());
+        row.setPopularity(dto.getPopularity());
+        row.setGenreIds(genreIds(dto));
+        row.setOriginalLanguage(dto.getOriginalLanguage());
+        row.setIsAdult(Boolean.TRUE.equals(dto.getAdult()));
+        row.setSource("TMDB");
+
+        if (detailed) {
+            row.setRuntimeMinutes(dto.getRuntime());
+            row.setBudget(dto.getBudget());
+            row.setRevenue(dto.getRevenue());
+            row.setTagline(truncate(dto.getTagline(), 500));
+            row.setStatus(truncate(dto.getStatus(), 100));
+            row.setDirector(director(dto));
+            row.setIsDetailed(true);
+        }
+
+        // fetch_count is demand, counted by TieredMovieCache; writing a response never bumps it
+        if (row.getId() == null) {
+            row.setExpiresAt(LocalDateTime.now().plusHours(ttlHours)); // @PrePersist fills the rest
+            row.setFetchCount(0);
+        } else {
+            row.extendExpiry(ttlHours);
+        }
+    }
+
+    /**
+     * The TMDB response a cache row was built from, as far as the row keeps it.
+     * Companies, countries, languages and the cast are not stored and stay
+     * null; the credits carry only the director.
+     */
+    static TMDBMovieDTO toDto(ExternalMovieCache row) {
+        TMDBMovieDTO dto = new TMDBMovieDTO();
+        dto.setId(row.getTmdbId());
+        dto.setTitle(row.getTitle());
+        dto.setOriginalTitle(row.getOriginalTitle());
+        dto.setOverview(row.getOverview());
+        dto.setPosterPath(row.getPosterPath());
+        dto.setBackdropPath(row.getBackdropPath());
+        dto.setReleaseDate(row.getReleaseDate());
+        dto.setVoteAverage(row.getVoteAverage());
+        dto.setVoteCount(row.getVoteCount());
+        dto.setPopularity(row.getPopularity());
+        dto.setGenreIds(Arrays.stream(row.getGenreIdsArray()).boxed().collect(Collectors.toList()));
+        dto.setOriginalLanguage(row.getOriginalLanguage());
+        dto.setAdult(row.getIsAdult());
+        dto.setRuntime(row.getRuntimeMinutes());
+        dto.setBudget(row.getBudget());
+        dto.setRevenue(row.getRevenue());
+        dto.setTagline(row.getTagline());
+        dto.setStatus(row.getStatus());
+        if (row.getDirector() != null) {
+            TMDBMovieDTO.CrewDTO director = new TMDBMovieDTO.CrewDTO();
+            director.setName(row.getDirector());
+            director.setJob("Director");
+            director.setDepartment("Directing");
+            TMDBMovieDTO.CreditsDTO credits = new TMDBMovieDTO.CreditsDTO();
+            credits.setCrew(List.of(director));
+            dto.setCredits(credits);
+        }
+        return dto;
+    }
+
+    private static String genreIds(TMDBMovieDTO dto) {
+        List<Integer> ids = dto.getGenreIds();
+        if ((ids == null || ids.isEmpty()) && dto.getGenres() != null) {
+            ids = dto.getGenres().stream().map(TMDBMovieDTO.GenreDTO::getId).collect(Collectors.toList());
+        }
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static String director(TMDBMovieDTO dto) {
+        if (dto.getCredits() == null || dto.getCredits().getCrew() == null) {
+            return null;
+        }
+        return dto.getCredits().getCrew().stream()
+                .filter(c -> "Director".equals(c.getJob()))
+                .map(TMDBMovieDTO.CrewDTO::getName)
+                .findFirst()
+                .map(name -> truncate(name, 200))
+                .orElse(null);
+    }
+
+    private static Integer releaseYear(String releaseDate) {
+        if (releaseDate == null || releaseDate.length() < 4) {
+            return null;
+        }
+        try {
+            return Integer.parseInt(releaseDate.substring(0, 4));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String firstNonBlank(String... values) {
+        for (String v : values) {
+            if (v != null && !v.isBlank()) {
+                return truncate(v, 300);
+            }
+        }
+        return null;
+    }
+
+    private static String truncate(String value, int max) {
+        return value == null || value.length() <= max ? value : value.substring(0, max);
+    }
+}
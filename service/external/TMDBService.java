@@ -1 +1,203 @@
+package com.cameron.cop3060.service.external;
 
+import com.cameron.cop3060.dto.external.TMDBMovieDTO;
+import com.cameron.cop3060.dto.external.TMDBSearchResponseDTO;
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.exception.RateLimitExceededException;
+import com.cameron.cop3060.exception.ResourceNotFoundException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.github.bucket4j.Bucket;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.util.UriBuilder;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Non-blocking client for The Movie Database (TMDB) API
+ *
+ * Every call first takes a token from the tmdbRateLimiter bucket. Tokens are
+ * awaited asynchronously (Bucket4j's scheduling API), so a caller that has to
+ * wait for the next refill parks no thread; if no token frees up within
+ * {@code tmdb.api.rate-limit-max-wait-ms} the call fails with 429.
+ * Responses are decoded into TMDB DTOs and queued for a batched
+ * ExternalMovieCache upsert.
+ *
+ * Concurrent lookups of the same movie id, or of the same normalized search,
+ * are coalesced (SingleFlight): they share one token, one HTTP call and one
+ * cache upsert.
+ *
+ * @author Cameron Brown
+ */
+@Service
+public class TMDBService {
+
+    private final WebClient webClient;
+    private final Bucket rateLimiter;
+    private final ExternalMovieCacheWriter cacheWriter;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final Duration timeout;
+    private final Duration maxTokenWait;
+    private final SingleFlight<Long, CachedMovie> movieFlights;
+    private final SingleFlight<String, TMDBSearchResponseDTO> searchFlights;
+
+    // Only schedules "token available" callbacks; never runs HTTP or DB work
+    private final ScheduledExecutorService tokenScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tmdb-rate-limiter");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public TMDBService(@Qualifier("tmdbWebClient") WebClient webClient,
+                       @Qualifier("tmdbRateLimiter") Bucket rateLimiter,
+                       ExternalMovieCacheWriter cacheWriter,
+                       ObjectMapper objectMapper,
+                       @Value("${tmdb.api.key}") String apiKey,
+                       @Value("${tmdb.api.timeout:5000}") long timeoutMillis,
+                       @Value("${tmdb.api.rate-limit-max-wait-ms:10000}") long maxTokenWaitMillis,
+                       @Value("${tmdb.single-flight.wait-timeout-ms:20000}") long waitTimeoutMillis) {
+        this.webClient = webClient;
+        this.rateLimiter = rateLimiter;
+        this.cacheWriter = cacheWriter;
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.timeout = Duration.ofMillis(timeoutMillis);
+        this.maxTokenWait = Duration.ofMillis(maxTokenWaitMillis);
+        this.movieFlights = new SingleFlight<>(Duration.ofMillis(waitTimeoutMillis));
+        this.searchFlights = new SingleFlight<>(Duration.ofMillis(waitTimeoutMillis));
+    }
+
+    /**
+     * Fetch full movie details (with credits) and cache them
+     */
+    public Mono<TMDBMovieDTO> getMovie(long tmdbId) {
+        return fetchAndCache(tmdbId).map(CachedMovie::dto);
+    }
+
+    /**
+     * Fetch full movie details and return the refreshed ExternalMovieCache row
+     */
+    public Mono<ExternalMovieCache> refreshMovie(long tmdbId) {
+        return fetchAndCache(tmdbId).map(CachedMovie::row);
+    }
+
+    /** Response and the row it was saved to */
+    record CachedMovie(TMDBMovieDTO dto, ExternalMovieCache row) {}
+
+    private Mono<CachedMovie> fetchAndCache(long tmdbId) {
+        return movieFlights.execute(tmdbId, () -> fetchMovie(tmdbId)
+                        .flatMap(movie -> cacheWriter.upsert(movie.dto(), true, movie.rawJson())
+                                .map(row -> new CachedMovie(movie.dto(), row))))
+                .onErrorMap(TimeoutException.class, this::gatewayTimeout);
+    }
+
+    /**
+     * Search movies by title and cache the summaries on the page
+     */
+    public Mono<TMDBSearchResponseDTO> searchMovies(String query, int page) {
+        String normalized = normalizeQuery(query);
+        return searchFlights.execute("search:" + normalized + "#" + page, () -> get(TMDBSearchResponseDTO.class,
+                        uri -> uri.path("/search/movie")
+                                .queryParam("query", normalized)
+                                .queryParam("page", page))
+                        .flatMap(this::cacheResults))
+                .onErrorMap(TimeoutException.class, this::gatewayTimeout);
+    }
+
+    /**
+     * Current popular movies, cached the same way as search results
+     */
+    public Mono<TMDBSearchResponseDTO> getPopularMovies(int page) {
+        return searchFlights.execute("popular:" + page, () -> get(TMDBSearchResponseDTO.class,
+                        uri -> uri.path("/movie/popular")
+                                .queryParam("page", page))
+                        .flatMap(this::cacheResults))
+                .onErrorMap(TimeoutException.class, this::gatewayTimeout);
+    }
+
+    /**
+     * Coalescing counters, keyed by lookup kind
+     */
+    public Map<String, Map<String, Long>> singleFlightStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("movies", movieFlights.stats());
+        stats.put("searches", searchFlights.stats());
+        return stats;
+    }
+
+    /** Search text as TMDB treats it: case and extra whitespace don't matter */
+    static String normalizeQuery(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private ResponseStatusException gatewayTimeout(TimeoutException e) {
+        return new ResponseStatusException(HttpStatus.GATEWAY_TIMEOUT, "Timed out waiting for TMDB");
+    }
+
+    /** Decoded details plus the raw body kept in ExternalMoviePayload */
+    record FetchedMovie(TMDBMovieDTO dto, String rawJson) {}
+
+    /**
+     * Fetch details without touching the cache table
+     */
+    Mono<FetchedMovie> fetchMovie(long tmdbId) {
+        return get(String.class, uri -> uri.path("/movie/{id}")
+                .queryParam("append_to_response", "credits"), tmdbId)
+                .map(raw -> new FetchedMovie(decode(raw, TMDBMovieDTO.class), raw))
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new ResourceNotFoundException("Movie", "tmdbId", tmdbId));
+    }
+
+    private Mono<TMDBSearchResponseDTO> cacheResults(TMDBSearchResponseDTO response) {
+        return cacheWriter.upsertAll(response.getResults()).thenReturn(response);
+    }
+
+    private <T> Mono<T> get(Class<T> type,
+                            Function<UriBuilder, UriBuilder> uri,
+                            Object... uriVariables) {
+        return acquireToken().then(webClient.get()
+                .uri(b -> uri.apply(b).queryParam("api_key", apiKey).build(uriVariables))
+                .retrieve()
+                .bodyToMono(type)
+                .timeout(timeout));
+    }
+
+    /**
+     * Complete once a rate limit token is ours; the wait is scheduled, not blocked
+     */
+    private Mono<Void> acquireToken() {
+        return Mono.fromFuture(() -> rateLimiter.asScheduler().tryConsume(1, maxTokenWait, tokenScheduler))
+                .flatMap(acquired -> acquired
+                        ? Mono.<Void>empty()
+                        : Mono.error(new RateLimitExceededException("TMDB")));
+    }
+
+    private <T> T decode(String json, Class<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable TMDB response: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        tokenScheduler.shutdownNow();
+    }
+}
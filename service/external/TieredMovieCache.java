@@ -0,0 +1,153 @@
+package com.cameron.cop3060.service.external;
+
+import com.cameron.cop3060.entity.ExternalMovieCache;
+import com.cameron.cop3060.repository.ExternalMovieCacheRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through cache for TMDB movie details
+ * 
+ * L1: the "tmdbMovies" Caffeine cache from CacheConfig (in-process)
+ * L2: the external_movie_cache table (shared, survives restarts)
+ * L3: the TMDB API
+ * 
+ * A row past its expires_at (or only known from a search result) is still
+ * returned right away (stale-while-revalidate) while one background refresh
+ * per movie fetches the details again. On startup the most requested rows are
+ * loaded from L2 into L1, so a restarted node does not go back to TMDB for them.
+ *
+ * fetch_count measures demand: every lookup served here counts once,
+ * whichever tier answers it, and background refreshes never count. Counts
+ * are kept in memory and added to the table every
+ * {@code tmdb.cache.demand-flush-ms}, one UPDATE per distinct increment.
+ * 
+ * @author Cameron Brown
+ */
+@Component
+public class TieredMovieCache {
+
+    private static final Logger log = LoggerFactory.getLogger(TieredMovieCache.class);
+
+    public static final String CACHE_NAME = "tmdbMovies";
+
+    // Keeps each IN (...) list well under every driver's bind parameter limit
+    private static final int MAX_IDS_PER_UPDATE = 1000;
+
+    private final Cache l1;
+    private final ExternalMovieCacheRepository repository;
+    private final TMDBService tmdbService;
+    private final int warmSize;
+
+    // Movies with a background refresh running
+    private final Set<Long> refreshing = ConcurrentHashMap.newKeySet();
+
+    // Lookups served since the last flush, by movie
+    private final ConcurrentHashMap<Long, Integer> demand = new ConcurrentHashMap<>();
+    private final TransactionTemplate transactionTemplate;
+
+    public TieredMovieCache(CacheManager cacheManager,
+                            ExternalMovieCacheRepository repository,
+                            TMDBService tmdbService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${tmdb.cache.warm-size:500}") int warmSize) {
+        this.l1 = cacheManager.getCache(CACHE_NAME);
+        this.repository = repository;
+        this.tmdbService = tmdbService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.warmSize = warmSize;
+    }
+
+    public Mono<ExternalMovieCache> getMovie(long tmdbId) {
+        demand.merge(tmdbId, 1, Integer::sum);
+        ExternalMovieCache cached = l1.get(tmdbId, ExternalMovieCache.class);
+        if (cached != null) {
+            return Mono.just(revalidateIfStale(cached));
+        }
+        return Mono.fromCallable(() -> repository.findByTmdbId(tmdbId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(row -> row
+                        .map(r -> {
+                            l1.put(tmdbId, r);
+                            return Mono.just(revalidateIfStale(r));
+                        })
+                        .orElseGet(() -> tmdbService.refreshMovie(tmdbId).doOnNext(r -> l1.put(tmdbId, r))));
+    }
+
+    private ExternalMovieCache revalidateIfStale(ExternalMovieCache row) {
+        boolean stale = row.isExpired() || !Boolean.TRUE.equals(row.getIsDetailed());
+        if (stale && refreshing.add(row.getTmdbId())) {
+            Long tmdbId = row.getTmdbId();
+            tmdbService.refreshMovie(tmdbId)
+                    .doFinally(signal -> refreshing.remove(tmdbId))
+                    .subscribe(
+                            fresh -> l1.put(tmdbId, fresh),
+                            e -> log.warn("Background refresh of TMDB movie {} failed: {}", tmdbId, e.getMessage()));
+        }
+        return row;
+    }
+
+    /**
+     * Load the most requested movies from L2 into L1
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (warmSize <= 0) {
+            return;
+        }
+        List<ExternalMovieCache> rows = repository.findAllByOrderByFetchCountDesc(PageRequest.of(0, warmSize));
+        rows.forEach(row -> l1.put(row.getTmdbId(), row));
+        log.info("Warmed {} cache with {} movies from external_movie_cache", CACHE_NAME, rows.size());
+    }
+
+    /**
+     * Add the lookups counted since the last flush to fetch_count
+     */
+    @Scheduled(fixedDelayString = "${tmdb.cache.demand-flush-ms:10000}")
+    @PreDestroy
+    public void flushDemand() {
+        if (demand.isEmpty()) {
+            return;
+        }
+        // remove() hands over each count atomically; lookups after it start a new one
+        Map<Integer, List<Long>> byIncrement = new HashMap<>();
+        for (Long tmdbId : demand.keySet()) {
+            Integer count = demand.remove(tmdbId);
+            if (count != null) {
+                byIncrement.computeIfAbsent(count, c -> new ArrayList<>()).add(tmdbId);
+            }
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> byIncrement.forEach((count, ids) -> {
+                for (int from = 0; from < ids.size(); from += MAX_IDS_PER_UPDATE) {
+                    repository.addFetchCount(ids.subList(from, Math.min(from + MAX_IDS_PER_UPDATE, ids.size())), count);
+                }
+            }));
+        } catch (RuntimeException e) {
+            // Keep the counts for the next flush
+            byIncrement.forEach((count, ids) -> ids.forEach(id -> demand.merge(id, count, Integer::sum)));
+            log.warn("Could not update fetch_count for {} movies: {}",
+                    byIncrement.values().stream().mapToInt(List::size).sum(), e.getMessage());
+        }
+    }
+}
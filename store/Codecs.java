@@ -0,0 +1,136 @@
+package com.cop_3060.store;
+
+import com.cop_3060.dto.CategoryDto;
+import com.cop_3060.dto.LocationDto;
+import com.cop_3060.dto.ResourceDto;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Compact binary formats for the DTOs stored in a RecordLog.
+ * Numbers are varints and strings are a varint length (+1, so 0 means null)
+ * followed by UTF-8 bytes. Resources carry full copies of their location and
+ * category, the same as the in-memory store does.
+ */
+public final class Codecs {
+
+    public static final RecordCodec<LocationDto> LOCATION = new RecordCodec<>() {
+        @Override
+        public byte[] encode(LocationDto value) {
+            Writer out = new Writer();
+            writeLocation(out, value);
+            return out.toByteArray();
+        }
+
+        @Override
+        public LocationDto decode(ByteBuffer in) {
+            return readLocation(in);
+        }
+    };
+
+    public static final RecordCodec<CategoryDto> CATEGORY = new RecordCodec<>() {
+        @Override
+        public byte[] encode(CategoryDto value) {
+            Writer out = new Writer();
+            writeCategory(out, value);
+            return out.toByteArray();
+        }
+
+        @Override
+        public CategoryDto decode(ByteBuffer in) {
+            return readCategory(in);
+        }
+    };
+
+    public static final RecordCodec<ResourceDto> RESOURCE = new RecordCodec<>() {
+        @Override
+        public byte[] encode(ResourceDto value) {
+            Writer out = new Writer();
+            out.id(value.id());
+            out.string(value.name());
+            out.string(value.description());
+            writeLocation(out, value.location());
+            writeCategory(out, value.category());
+            return out.toByteArray();
+        }
+
+        @Override
+        public ResourceDto decode(ByteBuffer in) {
+            return new ResourceDto(readId(in), readString(in), readString(in), readLocation(in), readCategory(in));
+        }
+    };
+
+    private Codecs() {}
+
+    private static void writeLocation(Writer out, LocationDto dto) {
+        out.id(dto.id());
+        out.string(dto.building());
+        out.string(dto.room());
+    }
+
+    private static LocationDto readLocation(ByteBuffer in) {
+        return new LocationDto(readId(in), readString(in), readString(in));
+    }
+
+    private static void writeCategory(Writer out, CategoryDto dto) {
+        out.id(dto.id());
+        out.string(dto.name());
+        out.string(dto.description());
+    }
+
+    private static CategoryDto readCategory(ByteBuffer in) {
+        return new CategoryDto(readId(in), readString(in), readString(in));
+    }
+
+    private static long readVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+
+    private static Long readId(ByteBuffer in) {
+        return readVarLong(in);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) return null;
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class Writer extends ByteArrayOutputStream {
+
+        Writer() {
+            super(64);
+        }
+
+        void varLong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+        }
+
+        void id(Long id) {
+            varLong(id);
+        }
+
+        void string(String value) {
+            if (value == null) {
+                varLong(0);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varLong(bytes.length + 1L);
+            write(bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package com.cop_3060.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.BiConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Append-only, memory-mapped RecordLog.
+ *
+ * Layout of the store directory:
+ *  - log-N.bin:      preallocated segment, mapped read/write, holding records
+ *                    [int length][byte type][long id][payload][int crc32c]
+ *                    (length covers the whole record; 0 marks the end)
+ *  - snapshot-N.bin: every live record as of the start of log-N, plus the id high-water mark
+ *
+ * Writers copy the record into the mapping and return; a background thread
+ * forces dirty segments every {@code flushIntervalMillis} (group commit), so
+ * no write waits for an fsync. A full segment, or the snapshot timer, seals the
+ * active log and starts a new one; the compactor then folds the previous
+ * snapshot and the sealed logs into a new snapshot and deletes the inputs.
+ * Recovery loads the newest snapshot and replays only the logs after it.
+ *
+ * Writers never touch the file system: services append from inside a
+ * ConcurrentHashMap compute. A record that does not fit the active segment is
+ * queued instead, and the flusher thread maps the next segment (outside the
+ * lock) and writes the queue out; later records queue behind it so the log
+ * keeps the order the writes happened in.
+ */
+public class MappedRecordLog<T> implements RecordLog<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(MappedRecordLog.class);
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 4;
+    private static final int SNAPSHOT_MAGIC = 0x52534E50;
+    private static final byte[] NO_PAYLOAD = new byte[0];
+    private static final Pattern FILE_NAME = Pattern.compile("(log|snapshot)-(\\d+)\\.bin");
+
+    private final Path dir;
+    private final RecordCodec<T> codec;
+    private final int segmentBytes;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService compactor;
+
+    // Guarded by lock
+    private final Object lock = new Object();
+    private long generation;
+    private MappedByteBuffer active;
+    private boolean dirty;
+    private List<MappedByteBuffer> sealed = new ArrayList<>();
+    private List<CompletableFuture<Void>> waiters = new ArrayList<>();
+    private final Deque<Record> pending = new ArrayDeque<>();
+
+    /** A record waiting for the flusher to start a new segment. */
+    private record Record(byte type, long id, byte[] payload) {
+        int length() {
+            return RECORD_OVERHEAD + payload.length;
+        }
+    }
+
+    public MappedRecordLog(Path dir, RecordCodec<T> codec, int segmentBytes,
+                           long flushIntervalMillis, long snapshotIntervalSeconds) {
+        this.dir = dir;
+        this.codec = codec;
+        this.segmentBytes = segmentBytes;
+
+        String name = dir.getFileName().toString();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(daemon("record-log-flush-" + name));
+        this.compactor = Executors.newSingleThreadExecutor(daemon("record-log-compact-" + name));
+
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::rotateIfDirty,
+                snapshotIntervalSeconds, snapshotIntervalSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public long recover(BiConsumer<Long, T> restore) {
+        synchronized (lock) {
+            if (active != null) throw new IllegalStateException("Record log already recovered: " + dir);
+            try {
+                Files.createDirectories(dir);
+                List<Path> leftovers;
+                try (Stream<Path> files = Files.list(dir)) {
+                    leftovers = files.filter(p -> p.toString().endsWith(".tmp")).toList();
+                }
+                for (Path p : leftovers) Files.delete(p); // half-written snapshot from a crash
+
+                long snapshotGen = latest("snapshot");
+                State state = snapshotGen > 0 ? readSnapshot(snapshotGen) : new State();
+                List<Long> logs = generations("log").stream().filter(g -> g >= snapshotGen).toList();
+
+                for (int i = 0; i < logs.size() - 1; i++) {
+                    replay(map(logs.get(i), FileChannel.MapMode.READ_ONLY), state);
+                }
+
+                // Reopen the newest log for appending, dropping any torn tail
+                generation = logs.isEmpty() ? Math.max(snapshotGen, 1) : logs.get(logs.size() - 1);
+                active = map(generation, FileChannel.MapMode.READ_WRITE);
+                int end = replay(active, state);
+                clearTail(active, end);
+                active.position(end);
+
+                for (Map.Entry<Long, byte[]> e : state.records.entrySet()) {
+                    restore.accept(e.getKey(), codec.decode(ByteBuffer.wrap(e.getValue())));
+                }
+                return state.maxId;
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not recover record log " + dir, e);
+            }
+        }
+    }
+
+    @Override
+    public void put(long id, T value) {
+        append(PUT, id, codec.encode(value));
+    }
+
+    @Override
+    public void remove(long id) {
+        append(REMOVE, id, NO_PAYLOAD);
+    }
+
+    private void append(byte type, long id, byte[] payload) {
+        Record record = new Record(type, id, payload);
+        if (record.length() > segmentBytes) {
+            throw new IllegalArgumentException("Record %d is larger than a log segment".formatted(id));
+        }
+        synchronized (lock) {
+            if (active == null) throw new IllegalStateException("Record log not recovered: " + dir);
+            if (pending.isEmpty() && active.remaining() >= record.length()) {
+                write(record);
+                return;
+            }
+            pending.add(record);
+            if (pending.size() == 1) flusher.execute(this::drain);
+        }
+    }
+
+    /** Copy a record into the active segment. Caller holds the lock and has checked it fits. */
+    private void write(Record record) {
+        int length = record.length();
+        int start = active.position();
+        active.putInt(length).put(record.type()).putLong(record.id()).put(record.payload());
+        CRC32C crc = new CRC32C();
+        crc.update(active.slice(start + 4, length - 8));
+        active.putInt((int) crc.getValue());
+        dirty = true;
+    }
+
+    /**
+     * Write out queued records, starting new segments as they fill up.
+     * Runs on the flusher thread, the only one that starts segments.
+     */
+    private void drain() {
+        while (true) {
+            long next;
+            synchronized (lock) {
+                if (active == null) return;
+                while (!pending.isEmpty() && active.remaining() >= pending.peek().length()) {
+                    write(pending.poll());
+                }
+                if (pending.isEmpty()) return;
+                next = generation + 1;
+            }
+            if (!rotate(next)) return; // retried on the next flush
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> sync() {
+        synchronized (lock) {
+            if (!dirty && sealed.isEmpty() && pending.isEmpty()) return CompletableFuture.completedFuture(null);
+            CompletableFuture<Void> done = new CompletableFuture<>();
+            waiters.add(done);
+            return done;
+        }
+    }
+
+    /** Group commit: force everything written since the last flush in one go. */
+    private void flush() {
+        drain();
+        List<MappedByteBuffer> segments;
+        List<CompletableFuture<Void>> done = List.of();
+        synchronized (lock) {
+            if (active == null || (!dirty && sealed.isEmpty())) return;
+            segments = sealed;
+            segments.add(active);
+            sealed = new ArrayList<>();
+            // Records still queued (a new segment could not be mapped) aren't on disk yet; their waiters stay
+            if (pending.isEmpty()) {
+                done = waiters;
+                waiters = new ArrayList<>();
+            }
+            dirty = false;
+        }
+        try {
+            for (MappedByteBuffer segment : segments) segment.force();
+            done.forEach(f -> f.complete(null));
+        } catch (RuntimeException e) {
+            done.forEach(f -> f.completeExceptionally(e));
+        }
+    }
+
+    private void rotateIfDirty() {
+        long next;
+        synchronized (lock) {
+            if (active == null || active.position() == 0) return;
+            next = generation + 1;
+        }
+        rotate(next);
+        drain(); // anything queued while the segment was being mapped
+    }
+
+    /**
+     * Seal the active segment and start generation {@code next}.
+     * The file is mapped before taking the lock, so writers only wait for the swap.
+     * Flusher thread only.
+     *
+     * @return false if the segment could not be mapped
+     */
+    private boolean rotate(long next) {
+        MappedByteBuffer segment;
+        try {
+            segment = map(next, FileChannel.MapMode.READ_WRITE);
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not start log segment {} in {}", next, dir, e);
+            return false;
+        }
+        synchronized (lock) {
+            sealed.add(active);
+            active = segment;
+            generation = next;
+        }
+        compactor.execute(() -> compact(next));
+        return true;
+    }
+
+    /**
+     * Fold the newest snapshot and every sealed log below {@code upTo} into
+     * snapshot-upTo, then delete what it replaced. Runs on the compactor thread
+     * from the files alone, so it never has to pause writers.
+     */
+    private void compact(long upTo) {
+        try {
+            long snapshotGen = latest("snapshot");
+            if (snapshotGen >= upTo) return;
+
+            State state = snapshotGen > 0 ? readSnapshot(snapshotGen) : new State();
+            for (long gen : generations("log")) {
+                if (gen >= snapshotGen && gen < upTo) replay(map(gen, FileChannel.MapMode.READ_ONLY), state);
+            }
+            writeSnapshot(upTo, state);
+
+            for (String kind : List.of("log", "snapshot")) {
+                for (long gen : generations(kind)) {
+                    if (gen < upTo) Files.deleteIfExists(file(kind, gen));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The inputs are still on disk; the next rotation retries
+            log.error("Compaction of {} up to generation {} failed", dir, upTo, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        flusher.shutdown();
+        await(flusher, 10, TimeUnit.SECONDS);
+        flush(); // may still start a segment for queued records, which schedules a compaction
+        compactor.shutdown();
+        await(compactor, 1, TimeUnit.MINUTES);
+    }
+
+    private static void await(ExecutorService executor, long timeout, TimeUnit unit) {
+        try {
+            executor.awaitTermination(timeout, unit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---- segments ----
+
+    /** Live records and id high-water mark while replaying. */
+    private static final class State {
+        final Map<Long, byte[]> records = new HashMap<>();
+        long maxId;
+    }
+
+    /**
+     * Apply every valid record in a segment to the state.
+     *
+     * @return offset just past the last valid record
+     */
+    private static int replay(ByteBuffer segment, State state) {
+        int pos = 0;
+        while (segment.limit() - pos >= RECORD_OVERHEAD) {
+            int length = segment.getInt(pos);
+            if (length < RECORD_OVERHEAD || length > segment.limit() - pos) break;
+
+            CRC32C crc = new CRC32C();
+            crc.update(segment.slice(pos + 4, length - 8));
+            if ((int) crc.getValue() != segment.getInt(pos + length - 4)) break; // torn write
+
+            byte type = segment.get(pos + 4);
+            long id = segment.getLong(pos + 5);
+            state.maxId = Math.max(state.maxId, id);
+            if (type == PUT) {
+                byte[] payload = new byte[length - RECORD_OVERHEAD];
+                segment.get(pos + 13, payload);
+                state.records.put(id, payload);
+            } else {
+                state.records.remove(id);
+            }
+            pos += length;
+        }
+        return pos;
+    }
+
+    /** Zero whatever follows the last valid record so it can't be mistaken for data later. */
+    private static void clearTail(MappedByteBuffer segment, int end) {
+        int last = segment.limit();
+        while (last > end && segment.get(last - 1) == 0) last--;
+        for (int i = end; i < last; i++) segment.put(i, (byte) 0);
+    }
+
+    private MappedByteBuffer map(long gen, FileChannel.MapMode mode) throws IOException {
+        Set<StandardOpenOption> options = mode == FileChannel.MapMode.READ_ONLY
+                ? EnumSet.of(StandardOpenOption.READ)
+                : EnumSet.of(StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try (FileChannel channel = FileChannel.open(file("log", gen), options)) {
+            // Never map less than is already on disk, even if segmentBytes was lowered since
+            long size = mode == FileChannel.MapMode.READ_ONLY ? channel.size() : Math.max(channel.size(), segmentBytes);
+            return channel.map(mode, 0, size); // the mapping outlives the channel
+        }
+    }
+
+    // ---- snapshots ----
+
+    private void writeSnapshot(long gen, State state) throws IOException {
+        Path tmp = dir.resolve("snapshot-" + gen + ".bin.tmp");
+        CRC32C crc = new CRC32C();
+        try (FileChannel channel = FileChannel.open(tmp,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(
+                    new CheckedOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)), crc));
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeLong(state.maxId);
+            out.writeInt(state.records.size());
+            for (Map.Entry<Long, byte[]> e : state.records.entrySet()) {
+                out.writeLong(e.getKey());
+                out.writeInt(e.getValue().length);
+                out.write(e.getValue());
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, file("snapshot", gen), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private State readSnapshot(long gen) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file("snapshot", gen)));
+        CRC32C crc = new CRC32C();
+        crc.update(in.slice(0, in.limit() - 4));
+        if (in.getInt() != SNAPSHOT_MAGIC || (int) crc.getValue() != in.getInt(in.limit() - 4)) {
+            throw new IOException("Corrupt snapshot " + file("snapshot", gen));
+        }
+
+        State state = new State();
+        state.maxId = in.getLong();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            long id = in.getLong();
+            byte[] payload = new byte[in.getInt()];
+            in.get(payload);
+            state.records.put(id, payload);
+        }
+        return state;
+    }
+
+    // ---- files ----
+
+    private Path file(String kind, long gen) {
+        return dir.resolve(kind + "-" + gen + ".bin");
+    }
+
+    private List<Long> generations(String kind) throws IOException {
+        List<Long> gens = new ArrayList<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(p -> {
+                Matcher m = FILE_NAME.matcher(p.getFileName().toString());
+                if (m.matches() && m.group(1).equals(kind)) gens.add(Long.parseLong(m.group(2)));
+            });
+        }
+        Collections.sort(gens);
+        return gens;
+    }
+
+    private long latest(String kind) throws IOException {
+        List<Long> gens = generations(kind);
+        return gens.isEmpty() ? 0 : gens.get(gens.size() - 1);
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package com.cop_3060.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary encoding of one record type for the RecordLog.
+ *
+ * @param <T> record type
+ */
+public interface RecordCodec<T> {
+
+    byte[] encode(T value);
+
+    T decode(ByteBuffer in);
+}
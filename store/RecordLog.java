@@ -0,0 +1,53 @@
+package com.cop_3060.store;
+
+import java.io.Closeable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+
+/**
+ * Durable change log behind one of the in-memory service stores.
+ * The service keeps serving reads from its map; every put/remove is also
+ * appended here so the map (and its id counter) can be rebuilt on startup.
+ *
+ * @param <T> record type (one of the DTOs)
+ */
+public interface RecordLog<T> extends Closeable {
+
+    /**
+     * Replay the persisted state, passing every live record to {@code restore}.
+     * Must be called once, before the first put/remove.
+     *
+     * @return the highest id ever written (including deleted ones), or 0 if empty
+     */
+    long recover(BiConsumer<Long, T> restore);
+
+    /** Record that {@code id} now holds {@code value}. Does not wait for the disk. */
+    void put(long id, T value);
+
+    /** Record that {@code id} was deleted. Does not wait for the disk. */
+    void remove(long id);
+
+    /** Completes once everything appended so far has been forced to disk. */
+    CompletableFuture<Void> sync();
+
+    @Override
+    void close();
+
+    /** A log that keeps nothing; the store behaves as a plain in-memory map. */
+    @SuppressWarnings("unchecked")
+    static <T> RecordLog<T> noop() {
+        return (RecordLog<T>) Noop.INSTANCE;
+    }
+
+    final class Noop implements RecordLog<Object> {
+        private static final Noop INSTANCE = new Noop();
+
+        private Noop() {}
+
+        @Override public long recover(BiConsumer<Long, Object> restore) { return 0; }
+        @Override public void put(long id, Object value) {}
+        @Override public void remove(long id) {}
+        @Override public CompletableFuture<Void> sync() { return CompletableFuture.completedFuture(null); }
+        @Override public void close() {}
+    }
+}
@@ -0,0 +1,51 @@
+package com.cop_3060.store;
+
+import com.cop_3060.dto.CategoryDto;
+import com.cop_3060.dto.LocationDto;
+import com.cop_3060.dto.ResourceDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Record logs for the service stores.
+ * Set {@code store.dir} to persist resources, categories and locations under
+ * that directory; leave it empty to keep everything in memory only.
+ */
+@Configuration
+public class StoreConfig {
+
+    @Value("${store.dir:}")
+    private String dir;
+
+    @Value("${store.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    @Value("${store.flush-interval-ms:10}")
+    private long flushIntervalMillis;
+
+    @Value("${store.snapshot-interval-seconds:300}")
+    private long snapshotIntervalSeconds;
+
+    @Bean
+    public RecordLog<ResourceDto> resourceLog() {
+        return open("resources", Codecs.RESOURCE);
+    }
+
+    @Bean
+    public RecordLog<CategoryDto> categoryLog() {
+        return open("categories", Codecs.CATEGORY);
+    }
+
+    @Bean
+    public RecordLog<LocationDto> locationLog() {
+        return open("locations", Codecs.LOCATION);
+    }
+
+    private <T> RecordLog<T> open(String name, RecordCodec<T> codec) {
+        if (dir == null || dir.isBlank()) return RecordLog.noop();
+        return new MappedRecordLog<>(Path.of(dir, name), codec, segmentBytes, flushIntervalMillis, snapshotIntervalSeconds);
+    }
+}
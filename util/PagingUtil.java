@@ -1,18 +1,30 @@
 package com.cop_3060.util;
 
+import com.cop_3060.exception.BadRequestException;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Function;
 
 /**
  * Utility class to apply paging and sorting to in-memory collections.
  */
 public class PagingUtil {
 
+    // Use the bounded-heap path when the requested window is at most 1/8th of the input
+    private static final int TOP_K_FRACTION = 8;
+
     /**
-     * Apply paging and sorting to a list.
+     * Apply paging and sorting to a collection.
      *
-     * @param items List of items to page
+     * @param items Items to page; never modified
+     * @param type  Class of the items; the sort fields are checked against it
      * @param page  Zero-based page index
      * @param size  Number of items per page
      * @param sort  List of field names (prefix "-" for descending)
@@ -20,37 +32,48 @@ public class PagingUtil {
      * @return A map containing envelope: content, page, size, totalElements, totalPages
      */
     public static <T> Map<String, Object> pageAndSort(
-            List<T> items, int page, int size, List<String> sort) {
-
-        // Apply sorting
-        if (sort != null && !sort.isEmpty()) {
-            Comparator<T> comparator = null;
-
-            for (String field : sort) {
-                boolean descending = field.startsWith("-");
-                String fieldName = descending ? field.substring(1) : field;
+            Collection<T> items, Class<T> type, int page, int size, List<String> sort) {
+        return pageAndSort(items, type, page, size, sort == null ? null : String.join(",", sort));
+    }
 
-                Comparator<T> fieldComparator = Comparator.comparing(
-                        t -> getFieldValue(t, fieldName),
-                        Comparator.nullsLast(Comparator.naturalOrder())
-                );
+    /**
+     * Apply paging and sorting to a collection.
+     * Only the requested window is ordered: small pages over large inputs go
+     * through a bounded heap (O(n log k), k = page*size+size) instead of a full sort.
+     * The sort spec is compiled against {@code type} up front, so a bad field is
+     * a 400 whether or not there is anything to sort.
+     *
+     * @param items Items to page; never modified
+     * @param type  Class of the items; the sort fields are checked against it
+     * @param page  Zero-based page index
+     * @param size  Number of items per page
+     * @param sort  Sort spec, e.g. "-rating,title" (prefix "-" for descending)
+     * @param <T>   Type of the items
+     * @return A map containing envelope: content, page, size, totalElements, totalPages
+     * @throws BadRequestException if a sort field does not exist on {@code type} or is not comparable
+     */
+    public static <T> Map<String, Object> pageAndSort(
+            Collection<T> items, Class<T> type, int page, int size, String sort) {
 
-                if (descending) fieldComparator = fieldComparator.reversed();
+        Comparator<T> comparator = comparator(type, sort);
 
-                comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
-            }
+        int totalElements = items.size();
+        int fromIndex = (int) Math.min((long) page * size, totalElements);
+        int toIndex = (int) Math.min((long) fromIndex + size, totalElements);
 
-            if (comparator != null) {
-                items.sort(comparator);
-            }
+        List<T> content;
+        if (fromIndex >= toIndex) {
+            content = List.of();
+        } else if (comparator == null) {
+            content = new ArrayList<>(items).subList(fromIndex, toIndex);
+        } else if ((long) toIndex * TOP_K_FRACTION <= totalElements) {
+            content = topK(items, comparator, fromIndex, toIndex);
+        } else {
+            List<T> sorted = new ArrayList<>(items);
+            sorted.sort(comparator);
+            content = sorted.subList(fromIndex, toIndex);
         }
 
-        // Apply paging
-        int totalElements = items.size();
-        int fromIndex = Math.min(page * size, totalElements);
-        int toIndex = Math.min(fromIndex + size, totalElements);
-        List<T> content = items.subList(fromIndex, toIndex);
-
         // Build envelope
         Map<String, Object> envelope = new LinkedHashMap<>();
         envelope.put("content", content);
@@ -63,20 +86,241 @@ public class PagingUtil {
     }
 
     /**
-     * Use reflection to get a property value from a POJO.
+     * Return positions [from, to) of the sorted order without sorting everything.
+     * Keeps the best {@code to} items in a max-heap of input positions; ties are
+     * broken by input position so results match a stable full sort.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> List<T> topK(Collection<T> items, Comparator<T> comparator, int from, int to) {
+        Object[] values = items.toArray();
+        int[] heap = new int[to];
+        int heapSize = 0;
+
+        for (int i = 0; i < values.length; i++) {
+            if (heapSize < to) {
+                heap[heapSize] = i;
+                siftUp(heap, heapSize++, values, comparator);
+            } else if (compare(values, i, heap[0], comparator) < 0) {
+                heap[0] = i;
+                siftDown(heap, heapSize, values, comparator);
+            }
+        }
+
+        // Pop the heap from the back: the max goes last, leaving the window in ascending order
+        Object[] window = new Object[heapSize];
+        for (int n = heapSize; n > 0; n--) {
+            window[n - 1] = values[heap[0]];
+            heap[0] = heap[n - 1];
+            siftDown(heap, n - 1, values, comparator);
+        }
+        return (List<T>) Arrays.asList(window).subList(from, heapSize);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> int compare(Object[] values, int a, int b, Comparator<T> comparator) {
+        int c = comparator.compare((T) values[a], (T) values[b]);
+        return c != 0 ? c : Integer.compare(a, b);
+    }
+
+    private static <T> void siftUp(int[] heap, int pos, Object[] values, Comparator<T> comparator) {
+        int item = heap[pos];
+        while (pos > 0) {
+            int parent = (pos - 1) >>> 1;
+            if (compare(values, item, heap[parent], comparator) <= 0) break;
+            heap[pos] = heap[parent];
+            pos = parent;
+        }
+        heap[pos] = item;
+    }
+
+    private static <T> void siftDown(int[] heap, int size, Object[] values, Comparator<T> comparator) {
+        if (size == 0) return;
+        int item = heap[0];
+        int pos = 0;
+        int half = size >>> 1;
+        while (pos < half) {
+            int child = 2 * pos + 1;
+            if (child + 1 < size && compare(values, heap[child + 1], heap[child], comparator) > 0) child++;
+            if (compare(values, item, heap[child], comparator) >= 0) break;
+            heap[pos] = heap[child];
+            pos = child;
+        }
+        heap[pos] = item;
+    }
+
+    /**
+     * Build one keyset (cursor) page from an iterator over sorted keys.
+     * The iterator must already be positioned after the cursor, e.g. via
+     * {@code index.tailSet(SortKey.fromCursor(after), false).iterator()},
+     * so a deep page costs the same as the first one.
      *
-     * @param obj       Object to read
-     * @param fieldName Field name
-     * @return Value of the field, or null if not found
+     * @param keys          Sorted keys, starting just after the previous page
+     * @param size          Number of items per page
+     * @param resolve       Maps a key to its item; null results are skipped
+     * @param totalElements Optional total to include in the envelope (null to omit)
+     * @param <T>           Type of the items
+     * @return A map containing envelope: content, size, nextCursor and optionally totalElements
      */
-    private static Object getFieldValue(Object obj, String fieldName) {
+    public static <T> Map<String, Object> keysetPage(
+            Iterator<SortKey> keys, int size, Function<SortKey, T> resolve, Integer totalElements) {
+
+        List<T> content = new ArrayList<>(Math.max(size, 0));
+        SortKey last = null;
+        while (content.size() < size && keys.hasNext()) {
+            SortKey key = keys.next();
+            T item = resolve.apply(key);
+            if (item != null) {
+                content.add(item);
+                last = key;
+            }
+        }
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("content", content);
+        envelope.put("size", size);
+        envelope.put("nextCursor", last != null && keys.hasNext() ? last.toCursor() : null);
+        if (totalElements != null) envelope.put("totalElements", totalElements);
+
+        return envelope;
+    }
+
+    /**
+     * Position an index just after the given cursor (or at the start when blank).
+     */
+    public static NavigableSet<SortKey> after(NavigableSet<SortKey> index, String cursor) {
+        return cursor == null || cursor.isBlank() ? index : index.tailSet(SortKey.fromCursor(cursor), false);
+    }
+
+    // Compiled comparators, keyed by (class, sort spec); access-ordered so the eldest entry is the LRU one
+    private static final int COMPARATOR_CACHE_SIZE = 256;
+    private static final Map<ComparatorKey, Comparator<?>> COMPARATORS = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<ComparatorKey, Comparator<?>> eldest) {
+                    return size() > COMPARATOR_CACHE_SIZE;
+                }
+            });
+
+    private record ComparatorKey(Class<?> type, String spec) {}
+
+    /**
+     * Compile a sort spec such as {@code "-rating,title"} into a comparator.
+     * Field names are resolved to record accessors or JavaBean getters once, and
+     * the result is cached per (class, spec). Nulls sort last (first when descending).
+     *
+     * @param type Class of the items to compare
+     * @param spec Comma-separated field names (prefix "-" for descending)
+     * @param <T>  Type of the items
+     * @return A comparator, or null if the spec is blank
+     * @throws BadRequestException if a field does not exist or is not comparable
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> Comparator<T> comparator(Class<T> type, String spec) {
+        if (spec == null || spec.isBlank()) return null;
+        ComparatorKey key = new ComparatorKey(type, spec.replace(" ", ""));
+
+        Comparator<?> cached = COMPARATORS.get(key);
+        if (cached == null) {
+            // Compiling twice under a race is harmless; don't hold the map lock while compiling
+            cached = compile(type, key.spec());
+            COMPARATORS.put(key, cached);
+        }
+        return (Comparator<T>) cached;
+    }
+
+    private static <T> Comparator<T> compile(Class<T> type, String spec) {
+        Comparator<T> comparator = null;
+
+        for (String field : spec.split(",")) {
+            if (field.isEmpty()) continue;
+            boolean descending = field.startsWith("-");
+            String fieldName = descending ? field.substring(1) : field;
+
+            Function<Object, Object> getter = accessor(type, fieldName);
+            Comparator<T> fieldComparator = (a, b) -> compareValues(getter.apply(a), getter.apply(b));
+            if (descending) fieldComparator = fieldComparator.reversed();
+
+            comparator = comparator == null ? fieldComparator : comparator.thenComparing(fieldComparator);
+        }
+
+        if (comparator == null) {
+            throw new BadRequestException("Invalid sort: " + spec);
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compareValues(Object a, Object b) {
+        if (a == b) return 0;
+        if (a == null) return 1;
+        if (b == null) return -1;
+        return ((Comparable<Object>) a).compareTo(b);
+    }
+
+    /**
+     * Resolve a field to a precompiled getter function.
+     * The accessor is bound through LambdaMetafactory so each call is a plain
+     * interface call; classes we can't link against fall back to a MethodHandle.
+     */
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> accessor(Class<?> type, String fieldName) {
+        Method method = findAccessor(type, fieldName);
+        if (method == null) {
+            throw new BadRequestException("Unknown sort field '%s' for %s".formatted(fieldName, type.getSimpleName()));
+        }
+        Class<?> returnType = method.getReturnType();
+        if (!returnType.isPrimitive() && !Comparable.class.isAssignableFrom(returnType)) {
+            throw new BadRequestException("Sort field '%s' is not comparable".formatted(fieldName));
+        }
+
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
         try {
-            // Convert first letter to uppercase for getter
-            String methodName = "get" + fieldName.substring(0, 1).toUpperCase() + fieldName.substring(1);
-            Method method = obj.getClass().getMethod(methodName);
-            return method.invoke(obj);
-        } catch (Exception e) {
-            return null;
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(
+                    lookup,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invoke();
+        } catch (Throwable linkFailure) {
+            try {
+                method.setAccessible(true);
+                MethodHandle handle = lookup.unreflect(method).asType(MethodType.methodType(Object.class, Object.class));
+                return target -> {
+                    try {
+                        return handle.invokeExact(target);
+                    } catch (Throwable e) {
+                        throw new IllegalStateException("Failed to read sort field " + fieldName, e);
+                    }
+                };
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new IllegalStateException("Cannot access sort field " + fieldName, e);
+            }
+        }
+    }
+
+    /**
+     * Find the accessor for a field: a record component first, then a
+     * JavaBean getter (getX / isX).
+     */
+    private static Method findAccessor(Class<?> type, String fieldName) {
+        if (fieldName.isEmpty()) return null;
+        if (type.isRecord()) {
+            for (RecordComponent component : type.getRecordComponents()) {
+                if (component.getName().equals(fieldName)) return component.getAccessor();
+            }
+        }
+        String suffix = Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = type.getMethod(prefix + suffix);
+                if (method.getParameterCount() == 0 && method.getReturnType() != void.class) return method;
+            } catch (NoSuchMethodException ignored) {
+                // try the next naming convention
+            }
         }
+        return null;
     }
 }
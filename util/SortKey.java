@@ -0,0 +1,56 @@
+package com.cop_3060.util;
+
+import com.cop_3060.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Locale;
+
+/**
+ * Sort key used by the in-memory indexes.
+ * Orders by the normalized (lowercase) key first, then by id so that
+ * records sharing the same name still have a stable, unique position.
+ */
+public record SortKey(String key, long id) implements Comparable<SortKey> {
+
+    private static final char SEPARATOR = '\u0000';
+
+    public static SortKey of(String value, long id) {
+        return new SortKey(normalize(value), id);
+    }
+
+    /**
+     * Lowercase a value for case-insensitive ordering and matching.
+     * Null values sort after everything else.
+     */
+    public static String normalize(String value) {
+        return value == null ? "\uffff" : value.toLowerCase(Locale.ROOT);
+    }
+
+    /** Opaque, URL-safe cursor token for keyset paging. */
+    public String toCursor() {
+        byte[] raw = (key + SEPARATOR + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * Decode a token produced by {@link #toCursor()}.
+     *
+     * @throws BadRequestException if the token is malformed
+     */
+    public static SortKey fromCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int split = raw.lastIndexOf(SEPARATOR);
+            return new SortKey(raw.substring(0, split), Long.parseLong(raw.substring(split + 1)));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    @Override
+    public int compareTo(SortKey other) {
+        int c = key.compareTo(other.key);
+        return c != 0 ? c : Long.compare(id, other.id);
+    }
+}